@@ -0,0 +1,42 @@
+// Slow avatar download load test.
+//
+// Usage:
+//   k6 run -e BASE_URL=http://localhost:8080 -e STUDENT_ID=1 -e VUS=2000 load-test/avatar-download.js
+//
+// Run it once against the default (platform thread) mode and once against the
+// "virtual" profile built with -Pjava21, then compare the summaries, see compare.sh.
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const baseUrl = __ENV.BASE_URL || 'http://localhost:8080';
+const studentId = __ENV.STUDENT_ID || '1';
+const vus = parseInt(__ENV.VUS || '2000');
+
+export const options = {
+    scenarios: {
+        downloads: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: vus },
+                { duration: '2m', target: vus },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const avatar = http.get(`${baseUrl}/student/${studentId}/avatar-from-fs`, {
+        responseType: 'none',
+        timeout: '60s',
+    });
+    check(avatar, { 'avatar downloaded': (r) => r.status === 200 });
+    const student = http.get(`${baseUrl}/student/${studentId}`);
+    check(student, { 'student loaded': (r) => r.status === 200 });
+    sleep(1);
+}
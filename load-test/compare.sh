@@ -0,0 +1,28 @@
+#!/usr/bin/env bash
+# Runs avatar-download.js against the platform thread and the virtual thread modes
+# and keeps both k6 summaries in load-test/results.
+# Requires JDK 21, k6 and a running PostgreSQL with a student that has an avatar.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+STUDENT_ID=${STUDENT_ID:-1}
+VUS=${VUS:-2000}
+mkdir -p load-test/results
+
+./mvnw -B -q -Pjava21 -DskipTests package
+JAR=$(ls target/school-*.jar | head -n 1)
+
+run() {
+    local mode=$1
+    shift
+    java -jar "$JAR" "$@" > "load-test/results/$mode.log" 2>&1 &
+    local pid=$!
+    until curl -sf "http://localhost:8080/student/count" > /dev/null; do sleep 1; done
+    k6 run -e STUDENT_ID="$STUDENT_ID" -e VUS="$VUS" \
+        --summary-export "load-test/results/$mode.json" load-test/avatar-download.js
+    kill "$pid"
+    wait "$pid" || true
+}
+
+run platform
+run virtual --spring.profiles.active=virtual
@@ -0,0 +1,91 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import ru.hogwarts.school.dto.AvatarResource;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.AvatarService;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AvatarReadBenchmark {
+
+    @Param({"128", "1024"})
+    private int imageSide;
+
+    private ConfigurableApplicationContext context;
+    private AvatarService avatarService;
+    private Path avatarsDir;
+    private long studentId;
+
+    @Setup
+    public void setUp() throws IOException {
+        avatarsDir = Files.createTempDirectory("avatar-benchmark");
+        context = BenchmarkContext.start(Map.of("applications.avatars-dir-name", avatarsDir.toString()));
+        avatarService = context.getBean(AvatarService.class);
+        Student student = BenchmarkContext.seedStudents(context, 1).get(0);
+        studentId = student.getId();
+        byte[] image = noiseImage();
+        avatarService.uploadAvatar(new ByteArrayInputStream(image), image.length, "image/png", studentId, true);
+    }
+
+    private byte[] noiseImage() throws IOException {
+        BufferedImage image = new BufferedImage(imageSide, imageSide, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int x = 0; x < imageSide; x++) {
+            for (int y = 0; y < imageSide; y++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(avatarsDir);
+    }
+
+    @Benchmark
+    public byte[] readFromDb() {
+        return avatarService.getAvatarFromDb(studentId, (eTag, lastModified) -> false).getData();
+    }
+
+    @Benchmark
+    public byte[] readFromFs() throws IOException {
+        AvatarResource avatar = avatarService.getAvatarFromFs(studentId, null, (eTag, lastModified) -> false);
+        try (InputStream inputStream = avatar.getResource().getInputStream()) {
+            return inputStream.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.hogwarts.school.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.SchoolApplication;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+final class BenchmarkContext {
+    private static final String[] HOUSES = {"Gryffindor", "Hufflepuff", "Ravenclaw", "Slytherin"};
+    private static final String[] NAMES = {"Harry", "Hermione", "Ron", "Draco", "Luna", "Neville", "Ginny", "Cedric"};
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(Map<String, String> properties) {
+        Map<String, String> arguments = new LinkedHashMap<>();
+        arguments.put("spring.datasource.url", "jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        arguments.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        arguments.put("spring.jpa.show-sql", "false");
+        arguments.put("spring.jpa.properties.hibernate.generate_statistics", "false");
+        arguments.put("spring.liquibase.enabled", "false");
+        arguments.put("logging.level.root", "warn");
+        arguments.put("logging.level.ru.hogwarts.school", "warn");
+        arguments.putAll(properties);
+        return new SpringApplicationBuilder(SchoolApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments.entrySet().stream()
+                        .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                        .toArray(String[]::new));
+    }
+
+    static List<Student> seedStudents(ConfigurableApplicationContext context, int size) {
+        FacultyRepository facultyRepository = context.getBean(FacultyRepository.class);
+        StudentRepository studentRepository = context.getBean(StudentRepository.class);
+        List<Faculty> faculties = new ArrayList<>();
+        for (String house : HOUSES) {
+            Faculty faculty = new Faculty();
+            faculty.setName(house);
+            faculty.setColor(house.toLowerCase());
+            faculties.add(facultyRepository.save(faculty));
+        }
+        Random random = new Random(42);
+        List<Student> students = new ArrayList<>(size);
+        List<Student> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < size; i++) {
+            Student student = new Student();
+            student.setName(NAMES[random.nextInt(NAMES.length)] + " " + i);
+            student.setAge(11 + random.nextInt(8));
+            student.setFaculty(faculties.get(random.nextInt(faculties.size())));
+            batch.add(student);
+            if (batch.size() == SEED_BATCH_SIZE || i == size - 1) {
+                students.addAll(studentRepository.saveAll(batch));
+                batch.clear();
+            }
+        }
+        return students;
+    }
+}
@@ -0,0 +1,76 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.SearchService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SearchBenchmark {
+
+    @Param({"100000"})
+    private int datasetSize;
+
+    @Param({"20"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private SearchService searchService;
+    private FacultyService facultyService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(Map.of());
+        searchService = context.getBean(SearchService.class);
+        facultyService = context.getBean(FacultyService.class);
+        BenchmarkContext.seedStudents(context, datasetSize);
+        searchService.reconcile();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SearchHit> searchStudentsByPrefix() {
+        return searchService.searchStudents("herm", 1, pageSize);
+    }
+
+    @Benchmark
+    public List<SearchHit> searchStudentsWithTypo() {
+        return searchService.searchStudents("Hremione 4242", 1, pageSize);
+    }
+
+    @Benchmark
+    public List<SearchHit> searchFaculties() {
+        return searchService.searchFaculties("slytherin", 1, pageSize);
+    }
+
+    @Benchmark
+    public List<Faculty> filterByNameOrColorInDatabase() {
+        return facultyService.filterByNameOrColor("slytherin");
+    }
+}
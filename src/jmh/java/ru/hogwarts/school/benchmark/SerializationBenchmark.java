@@ -0,0 +1,97 @@
+package ru.hogwarts.school.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SerializationBenchmark {
+
+    @Param({"100"})
+    private int pageSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private Faculty faculty;
+    private Student student;
+    private Avatar avatar;
+    private List<Student> page;
+    private byte[] studentJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        faculty = new Faculty();
+        faculty.setId(1L);
+        faculty.setName("Gryffindor");
+        faculty.setColor("red");
+        student = student(1);
+        avatar = new Avatar();
+        avatar.setId(1L);
+        avatar.setFilePath("./avatar/ab/cd/abcdef0123456789");
+        avatar.setFileSize(65_536);
+        avatar.setMediaType("image/png");
+        avatar.setContentHash("abcdef0123456789abcdef0123456789abcdef0123456789abcdef0123456789");
+        avatar.setStudent(student);
+        page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            page.add(student(i + 1));
+        }
+        studentJson = objectMapper.writeValueAsBytes(student);
+    }
+
+    private Student student(long id) {
+        Student student = new Student();
+        student.setId(id);
+        student.setName("Harry Potter " + id);
+        student.setAge(11 + (int) (id % 8));
+        student.setFaculty(faculty);
+        return student;
+    }
+
+    @Benchmark
+    public byte[] serializeStudent() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(student);
+    }
+
+    @Benchmark
+    public byte[] serializeFaculty() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(faculty);
+    }
+
+    @Benchmark
+    public byte[] serializeAvatar() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(avatar);
+    }
+
+    @Benchmark
+    public byte[] serializeStudentPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Student deserializeStudent() throws IOException {
+        return objectMapper.readValue(studentJson, Student.class);
+    }
+}
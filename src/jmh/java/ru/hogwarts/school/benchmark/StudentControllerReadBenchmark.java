@@ -0,0 +1,98 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.hogwarts.school.controller.StudentController;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StudentControllerReadBenchmark {
+
+    @Param({"default", "prod"})
+    private String profile;
+
+    @Param({"10000"})
+    private int datasetSize;
+
+    private ConfigurableApplicationContext context;
+    private StudentController studentController;
+    private long[] studentIds;
+
+    @Setup
+    public void setUp() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("spring.profiles.active", profile);
+        // The driver statement cache of the "prod" profile only takes effect against PostgreSQL
+        String url = System.getProperty("benchmark.datasource.url");
+        if (url != null) {
+            properties.put("spring.datasource.url", url);
+            properties.put("spring.datasource.username", System.getProperty("benchmark.datasource.username", ""));
+            properties.put("spring.datasource.password", System.getProperty("benchmark.datasource.password", ""));
+        }
+        context = BenchmarkContext.start(properties);
+        studentController = context.getBean(StudentController.class);
+        studentIds = BenchmarkContext.seedStudents(context, datasetSize).stream()
+                .mapToLong(Student::getId)
+                .toArray();
+        // Liquibase owns this index in production, the benchmark schema comes from Hibernate
+        context.getBean(JdbcTemplate.class).execute("CREATE INDEX IF NOT EXISTS student_age_id_idx ON student (age, id)");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Student>> filterByAge() {
+        return studentController.filterByAge(11 + ThreadLocalRandom.current().nextInt(8), null, 100);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Student>> filterByRangeAge() {
+        int minAge = 11 + ThreadLocalRandom.current().nextInt(6);
+        return studentController.filterByRangeAge(minAge, minAge + 2, null, 100);
+    }
+
+    @Benchmark
+    public ResponseEntity<Faculty> findStudentsFaculty() {
+        return studentController.findStudentsFaculty(studentIds[ThreadLocalRandom.current().nextInt(studentIds.length)]);
+    }
+
+    @Benchmark
+    public List<Student> getLastFiveStudents() {
+        return studentController.getLastFiveStudents();
+    }
+
+    @Benchmark
+    public List<String> getNameOfStudentsWhichStartsWith() {
+        return studentController.getNameOfStudentsWhichStartsWith('H');
+    }
+}
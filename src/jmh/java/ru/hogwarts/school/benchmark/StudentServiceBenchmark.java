@@ -0,0 +1,91 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.dto.CursorPage;
+import ru.hogwarts.school.dto.StudentStatistics;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.StudentService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StudentServiceBenchmark {
+
+    @Param({"10000"})
+    private int datasetSize;
+
+    @Param({"100"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private StudentService studentService;
+    private StudentRepository studentRepository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(Map.of());
+        studentService = context.getBean(StudentService.class);
+        studentRepository = context.getBean(StudentRepository.class);
+        BenchmarkContext.seedStudents(context, datasetSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPage<Student> filterByAge() {
+        return studentService.filterByAge(15, null, pageSize);
+    }
+
+    @Benchmark
+    public CursorPage<Student> filterByRangeAge() {
+        return studentService.filterByRangeAge(12, 14, null, pageSize);
+    }
+
+    @Benchmark
+    public long countStudents() {
+        return studentService.countStudents();
+    }
+
+    @Benchmark
+    public double averageAge() {
+        return studentService.averageAge();
+    }
+
+    @Benchmark
+    public double averageAgeInDatabase() {
+        return studentRepository.averageAge();
+    }
+
+    @Benchmark
+    public StudentStatistics getStatistics() {
+        return studentService.getStatistics();
+    }
+
+    @Benchmark
+    public List<String> getNameOfStudentsWhichStartsWith() {
+        return studentService.getNameOfStudentsWhichStartsWith('H');
+    }
+}
@@ -0,0 +1,26 @@
+package ru.hogwarts.school.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AvatarPreviewConfiguration {
+    private static final Logger logger = LoggerFactory.getLogger(AvatarPreviewConfiguration.class);
+
+    @Bean
+    public ThreadPoolTaskExecutor avatarPreviewExecutor(@Value("${applications.avatars-preview-threads:2}") int threads,
+                                                        @Value("${applications.avatars-preview-queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("avatar-preview-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+                logger.warn("Avatar preview queue is full, preview generation skipped"));
+        return executor;
+    }
+}
@@ -0,0 +1,101 @@
+package ru.hogwarts.school.configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+    public static final String STUDENTS = "students";
+    public static final String FACULTIES = "faculties";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${applications.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${applications.cache.time-to-live:PT10M}") Duration timeToLive) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name,
+                                               com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new CopyingCaffeineCache(name, cache, isAllowNullValues());
+            }
+        };
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCacheNames(List.of(STUDENTS, FACULTIES));
+        // Puts and evictions are applied after commit, so a rolled back write never reaches the cache
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    @Bean
+    public MeterBinder cacheHitRatioMetrics(CacheManager cacheManager) {
+        return registry -> cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(cache -> cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?>)
+                .forEach(cache -> Gauge.builder("cache.hit.ratio",
+                                (com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache(),
+                                c -> c.stats().hitRate())
+                        .description("Share of cache lookups served from the cache")
+                        .tag("cache", cache.getName())
+                        .register(registry));
+    }
+
+    // Entities are mutable and become managed when passed back to a repository, so callers get their own copy
+    private static class CopyingCaffeineCache extends CaffeineCache {
+
+        private CopyingCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                     boolean allowNullValues) {
+            super(name, cache, allowNullValues);
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+            return copy(super.lookup(key));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return (T) copy(super.get(key, () -> (T) copy(valueLoader.call())));
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            super.put(key, copy(value));
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            ValueWrapper existing = super.putIfAbsent(key, copy(value));
+            return existing == null ? null : toValueWrapper(copy(existing.get()));
+        }
+
+        private static Object copy(Object value) {
+            if (value instanceof Student student) {
+                return new Student(student);
+            }
+            if (value instanceof Faculty faculty) {
+                return new Faculty(faculty);
+            }
+            return value;
+        }
+    }
+}
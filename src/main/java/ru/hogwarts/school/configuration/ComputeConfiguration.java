@@ -0,0 +1,16 @@
+package ru.hogwarts.school.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class ComputeConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool computePool(@Value("${applications.info.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+}
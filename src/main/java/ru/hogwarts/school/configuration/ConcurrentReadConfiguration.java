@@ -0,0 +1,21 @@
+package ru.hogwarts.school.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ConcurrentReadConfiguration {
+
+    @Bean
+    public ThreadPoolTaskExecutor concurrentReadExecutor(@Value("${applications.concurrent-reads.threads:4}") int threads,
+                                                         @Value("${applications.concurrent-reads.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("concurrent-read-");
+        return executor;
+    }
+}
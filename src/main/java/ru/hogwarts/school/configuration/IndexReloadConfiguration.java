@@ -0,0 +1,19 @@
+package ru.hogwarts.school.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class IndexReloadConfiguration {
+
+    // A single thread rebuilds the in-memory indexes after bulk writes, one rebuild at a time
+    @Bean
+    public ThreadPoolTaskExecutor indexReloadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("index-reload-");
+        return executor;
+    }
+}
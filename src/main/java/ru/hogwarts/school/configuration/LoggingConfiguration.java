@@ -0,0 +1,13 @@
+package ru.hogwarts.school.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import ru.hogwarts.school.logging.SampledLogger;
+
+@Configuration
+public class LoggingConfiguration {
+
+    public LoggingConfiguration(@Value("${applications.logging.invocation-sample-rate:100}") int invocationSampleRate) {
+        SampledLogger.setSampleRate(invocationSampleRate);
+    }
+}
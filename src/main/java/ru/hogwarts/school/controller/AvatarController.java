@@ -2,9 +2,13 @@ package ru.hogwarts.school.controller;
 
 
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import ru.hogwarts.school.model.Avatar;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import ru.hogwarts.school.dto.AvatarInfo;
+import ru.hogwarts.school.model.AvatarJob;
+import ru.hogwarts.school.service.AvatarJobService;
 import ru.hogwarts.school.service.AvatarService;
 
 import java.util.List;
@@ -14,19 +18,39 @@ import java.util.List;
 @RequestMapping("/avatars")
 public class AvatarController {
     private final AvatarService avatarService;
+    private final AvatarJobService avatarJobService;
 
-    public AvatarController(AvatarService avatarService) {
+    public AvatarController(AvatarService avatarService, AvatarJobService avatarJobService) {
         this.avatarService = avatarService;
+        this.avatarJobService = avatarJobService;
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public void uploadAvatar(@RequestPart("avatar") MultipartFile multipartFile,
-                             @RequestParam long studentId) {
-        avatarService.uploadAvatar(multipartFile, studentId);
+    public ResponseEntity<AvatarJob> uploadAvatar(@RequestPart("avatar") MultipartFile multipartFile,
+                                                  @RequestParam long studentId,
+                                                  @RequestParam(required = false) Boolean storeInDb) {
+        AvatarJob job = avatarJobService.submit(multipartFile, studentId, storeInDb);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/avatars/jobs/{id}")
+                        .buildAndExpand(job.getId())
+                        .toUri())
+                .body(job);
     }
 
-    @GetMapping
-    public List<Avatar> getAvatarPage(@RequestParam("page") int pageNumber,
+    @GetMapping("/jobs/{id}")
+    public AvatarJob getJob(@PathVariable long id) {
+        return avatarJobService.get(id);
+    }
+
+    @GetMapping(params = "!page")
+    public ResponseEntity<List<AvatarInfo>> getAvatars(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer limit) {
+        return CursorPages.toResponse(avatarService.getAvatars(cursor, limit));
+    }
+
+    @GetMapping(params = "page")
+    public List<AvatarInfo> getAvatarPage(@RequestParam("page") int pageNumber,
                                       @RequestParam("size") int pageSize) {
         return avatarService.getAvatarPage(pageNumber, pageSize);
     }
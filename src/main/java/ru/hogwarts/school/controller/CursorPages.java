@@ -0,0 +1,24 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.http.ResponseEntity;
+import ru.hogwarts.school.dto.CursorPage;
+
+import java.util.List;
+
+final class CursorPages {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private CursorPages() {
+    }
+
+    static <T> ResponseEntity<List<T>> toResponse(CursorPage<T> page) {
+        return toResponse(ResponseEntity.ok(), page);
+    }
+
+    static <T> ResponseEntity<List<T>> toResponse(ResponseEntity.BodyBuilder builder, CursorPage<T> page) {
+        if (page.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(page.getContent());
+    }
+}
@@ -1,9 +1,15 @@
 package ru.hogwarts.school.controller;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hogwarts.school.dto.SearchHit;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.SearchService;
 
 import java.util.List;
 
@@ -13,9 +19,14 @@ import java.util.List;
 public class FacultyController {
 
     private final FacultyService facultyService;
+    private final SearchService searchService;
+    private final HttpCachePolicy httpCachePolicy;
 
-    public FacultyController(FacultyService facultyService) {
+    public FacultyController(FacultyService facultyService, SearchService searchService,
+                             HttpCachePolicy httpCachePolicy) {
         this.facultyService = facultyService;
+        this.searchService = searchService;
+        this.httpCachePolicy = httpCachePolicy;
     }
 
     @PostMapping
@@ -24,13 +35,15 @@ public class FacultyController {
     }
 
     @GetMapping("/{id}")
-    public Faculty get(@PathVariable long id) {
-        return facultyService.get(id);
+    public ResponseEntity<Faculty> get(@PathVariable long id) {
+        Faculty faculty = facultyService.get(id);
+        return httpCachePolicy.ok(HttpCachePolicy.eTag(faculty)).body(faculty);
     }
 
     @PutMapping("/{id}")
-    public void update(@PathVariable long id, @RequestBody Faculty faculty) {
-        facultyService.update(id, faculty);
+    public void update(@PathVariable long id, @RequestBody Faculty faculty,
+                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        facultyService.update(id, faculty, current -> HttpCachePolicy.matches(ifMatch, HttpCachePolicy.eTag(current)));
     }
 
     @DeleteMapping("/{id}")
@@ -38,9 +51,21 @@ public class FacultyController {
         return facultyService.remove(id);
     }
 
+    @DeleteMapping(params = "ids")
+    public int removeAll(@RequestParam List<Long> ids) {
+        return facultyService.removeAll(ids);
+    }
+
+    @PatchMapping(value = "/{id}/students", params = "to")
+    public int moveStudents(@PathVariable long id, @RequestParam long to) {
+        return facultyService.moveStudents(id, to);
+    }
+
     @GetMapping(params = "color")
-    public List<Faculty> filterByColor(@RequestParam(required = false) String color) {
-        return facultyService.filterByColor(color);
+    public ResponseEntity<List<Faculty>> filterByColor(@RequestParam(required = false) String color,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer limit) {
+        return httpCachePolicy.page(facultyService.filterByColor(color, cursor, limit), HttpCachePolicy::eTag);
     }
 
     @GetMapping(params = "nameOrColor")
@@ -48,9 +73,25 @@ public class FacultyController {
         return facultyService.filterByNameOrColor(nameOrColor);
     }
 
+    @GetMapping("/search")
+    public List<SearchHit> search(@RequestParam String q,
+                                  @RequestParam(required = false) Integer page,
+                                  @RequestParam(required = false) Integer size) {
+        return searchService.searchFaculties(q, page, size);
+    }
+
     @GetMapping("/{id}/students")
-    public List<Student> findStudentsByFacultyId(@PathVariable long id) {
-        return facultyService.findStudentsByFacultyId(id);
+    public ResponseEntity<List<Student>> findStudentsByFacultyId(@PathVariable long id,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false) Integer limit) {
+        return httpCachePolicy.page(facultyService.findStudentsByFacultyId(id, cursor, limit), HttpCachePolicy::eTag);
+    }
+
+    @GetMapping(value = "/{id}/students/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportStudentsByFacultyId(@PathVariable long id) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> facultyService.exportStudentsByFacultyId(id, outputStream));
     }
 
     @GetMapping("/the-longest-faculty-name")
@@ -0,0 +1,80 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import ru.hogwarts.school.dto.CursorPage;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+@Component
+class HttpCachePolicy {
+    private final CacheControl entityCacheControl;
+    private final CacheControl avatarCacheControl;
+
+    HttpCachePolicy(@Value("${applications.http-cache.max-age:PT0S}") Duration maxAge,
+                    @Value("${applications.http-cache.avatar-max-age:PT10M}") Duration avatarMaxAge) {
+        this.entityCacheControl = cacheControl(maxAge);
+        this.avatarCacheControl = cacheControl(avatarMaxAge);
+    }
+
+    private static CacheControl cacheControl(Duration maxAge) {
+        if (maxAge.isZero() || maxAge.isNegative()) {
+            return CacheControl.noCache().cachePublic();
+        }
+        return CacheControl.maxAge(maxAge).cachePublic().mustRevalidate();
+    }
+
+    ResponseEntity.BodyBuilder ok(String eTag) {
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(entityCacheControl);
+    }
+
+    ResponseEntity.BodyBuilder okAvatar(String eTag) {
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(avatarCacheControl);
+    }
+
+    <T> ResponseEntity<List<T>> page(CursorPage<T> page, Function<T, String> eTag) {
+        StringBuilder validators = new StringBuilder();
+        for (T element : page.getContent()) {
+            validators.append(eTag.apply(element)).append(';');
+        }
+        validators.append(page.getNextCursor());
+        String digest = DigestUtils.md5DigestAsHex(validators.toString().getBytes(StandardCharsets.UTF_8));
+        return CursorPages.toResponse(ok(digest), page);
+    }
+
+    // Strong comparison as required for If-Match: weak validators never match
+    static boolean matches(String ifMatch, String eTag) {
+        if (ifMatch == null) {
+            return true;
+        }
+        String quoted = "\"" + eTag + "\"";
+        for (String candidate : ifMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(quoted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String eTag(Faculty faculty) {
+        return "f" + faculty.getId() + "v" + faculty.getVersion();
+    }
+
+    static String eTag(Student student) {
+        String eTag = "s" + student.getId() + "v" + student.getVersion();
+        return student.getFaculty() != null ? eTag + "-" + eTag(student.getFaculty()) : eTag;
+    }
+}
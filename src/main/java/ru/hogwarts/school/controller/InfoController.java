@@ -2,18 +2,29 @@ package ru.hogwarts.school.controller;
 
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.hogwarts.school.dto.CacheStatistics;
+import ru.hogwarts.school.dto.ConcurrentReadMode;
+import ru.hogwarts.school.dto.ConcurrentReadReport;
+import ru.hogwarts.school.dto.SumResult;
+import ru.hogwarts.school.dto.SumStrategy;
+import ru.hogwarts.school.service.ConcurrentReadService;
 import ru.hogwarts.school.service.InfoService;
 
+import java.util.List;
+
 
 @RestController
 @RequestMapping("/info")
 public class InfoController {
 
     private final InfoService infoService;
+    private final ConcurrentReadService concurrentReadService;
 
-    public InfoController(InfoService infoService) {
+    public InfoController(InfoService infoService, ConcurrentReadService concurrentReadService) {
         this.infoService = infoService;
+        this.concurrentReadService = concurrentReadService;
     }
 
     @GetMapping("/port")
@@ -25,4 +36,29 @@ public class InfoController {
     public void step4() {
         infoService.step4();
     }
+
+    @GetMapping("/sum")
+    public SumResult sum(@RequestParam(defaultValue = "1000000") long n,
+                         @RequestParam(required = false) SumStrategy strategy) {
+        return infoService.sum(n, strategy);
+    }
+
+    @GetMapping("/names/parallel")
+    public ConcurrentReadReport readNamesParallel(@RequestParam(required = false) Integer threads,
+                                                  @RequestParam(defaultValue = "100") int batchSize,
+                                                  @RequestParam(defaultValue = "false") boolean includeNames) {
+        return concurrentReadService.readNames(ConcurrentReadMode.UNORDERED, threads, batchSize, includeNames);
+    }
+
+    @GetMapping("/names/ordered")
+    public ConcurrentReadReport readNamesOrdered(@RequestParam(required = false) Integer threads,
+                                                 @RequestParam(defaultValue = "100") int batchSize,
+                                                 @RequestParam(defaultValue = "false") boolean includeNames) {
+        return concurrentReadService.readNames(ConcurrentReadMode.ORDERED, threads, batchSize, includeNames);
+    }
+
+    @GetMapping("/cache-statistics")
+    public List<CacheStatistics> getCacheStatistics() {
+        return infoService.getCacheStatistics();
+    }
 }
@@ -1,15 +1,25 @@
 package ru.hogwarts.school.controller;
 
-import org.springframework.data.util.Pair;
-import org.springframework.http.HttpStatus;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hogwarts.school.dto.AvatarBytes;
+import ru.hogwarts.school.dto.AvatarResource;
+import ru.hogwarts.school.dto.ImportResult;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.dto.StudentStatistics;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.service.AvatarService;
+import ru.hogwarts.school.service.SearchService;
+import ru.hogwarts.school.service.StudentImportService;
 import ru.hogwarts.school.service.StudentService;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -17,10 +27,18 @@ import java.util.List;
 public class StudentController {
     private final StudentService studentService;
     private final AvatarService avatarService;
+    private final StudentImportService studentImportService;
+    private final SearchService searchService;
+    private final HttpCachePolicy httpCachePolicy;
 
-    public StudentController(StudentService studentService, AvatarService avatarService) {
+    public StudentController(StudentService studentService, AvatarService avatarService,
+                             StudentImportService studentImportService, SearchService searchService,
+                             HttpCachePolicy httpCachePolicy) {
         this.studentService = studentService;
         this.avatarService = avatarService;
+        this.studentImportService = studentImportService;
+        this.searchService = searchService;
+        this.httpCachePolicy = httpCachePolicy;
     }
 
     @PostMapping
@@ -28,14 +46,26 @@ public class StudentController {
         return studentService.create(student);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ImportResult importJson(InputStream inputStream) {
+        return studentImportService.importJson(inputStream);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ImportResult importCsv(InputStream inputStream) {
+        return studentImportService.importCsv(inputStream);
+    }
+
     @GetMapping("/{id}")
-    public Student get(@PathVariable long id) {
-        return studentService.get(id);
+    public ResponseEntity<Student> get(@PathVariable long id) {
+        Student student = studentService.get(id);
+        return httpCachePolicy.ok(HttpCachePolicy.eTag(student)).body(student);
     }
 
     @PutMapping("/{id}")
-    public void update(@PathVariable long id, @RequestBody Student student) {
-        studentService.update(id, student);
+    public void update(@PathVariable long id, @RequestBody Student student,
+                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        studentService.update(id, student, current -> HttpCachePolicy.matches(ifMatch, HttpCachePolicy.eTag(current)));
     }
 
     @DeleteMapping("/{id}")
@@ -43,54 +73,114 @@ public class StudentController {
         return studentService.remove(id);
     }
 
+    @DeleteMapping(params = "ids")
+    public int removeAll(@RequestParam List<Long> ids) {
+        return studentService.removeAll(ids);
+    }
+
+    @DeleteMapping(params = {"minAge", "maxAge"})
+    public int removeByRangeAge(@RequestParam int minAge, @RequestParam int maxAge) {
+        return studentService.removeByRangeAge(minAge, maxAge);
+    }
+
     @GetMapping(params = "age")
-    public List<Student> filterByAge(@RequestParam int age) {
-        return studentService.filterByAge(age);
+    public ResponseEntity<List<Student>> filterByAge(@RequestParam int age,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer limit) {
+        return httpCachePolicy.page(studentService.filterByAge(age, cursor, limit), HttpCachePolicy::eTag);
     }
 
     @GetMapping(params = {"minAge", "maxAge"})
-    public List<Student> filterByRangeAge(@RequestParam int minAge, @RequestParam int maxAge) {
-        return studentService.filterByRangeAge(minAge, maxAge);
+    public ResponseEntity<List<Student>> filterByRangeAge(@RequestParam int minAge, @RequestParam int maxAge,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer limit) {
+        return httpCachePolicy.page(studentService.filterByRangeAge(minAge, maxAge, cursor, limit),
+                HttpCachePolicy::eTag);
+    }
+
+    @GetMapping(value = "/export", params = "age", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportByAge(@RequestParam int age) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> studentService.exportByAge(age, outputStream));
+    }
+
+    @GetMapping(value = "/export", params = {"minAge", "maxAge"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportByRangeAge(@RequestParam int minAge, @RequestParam int maxAge) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> studentService.exportByRangeAge(minAge, maxAge, outputStream));
     }
 
     @GetMapping("/{id}/faculty")
-    public Faculty findStudentsFaculty(@PathVariable long id) {
-        return studentService.findStudentsFaculty(id);
+    public ResponseEntity<Faculty> findStudentsFaculty(@PathVariable long id) {
+        Faculty faculty = studentService.findStudentsFaculty(id);
+        if (faculty == null) {
+            return ResponseEntity.ok(null);
+        }
+        return httpCachePolicy.ok(HttpCachePolicy.eTag(faculty)).body(faculty);
     }
 
     @GetMapping("/{id}/avatar-from-db")
-    public ResponseEntity<byte[]> getAvatarFromDb(@PathVariable long id) {
-        return buildResponseEntity(avatarService.getAvatarFromDb(id));
+    public ResponseEntity<byte[]> getAvatarFromDb(@PathVariable long id, WebRequest request) {
+        AvatarBytes avatar = avatarService.getAvatarFromDb(id, request::checkNotModified);
+        if (avatar.getData() == null) {
+            return null;
+        }
+        return httpCachePolicy.okAvatar(avatar.getETag())
+                .contentLength(avatar.getData().length)
+                .contentType(MediaType.parseMediaType(avatar.getMediaType()))
+                .body(avatar.getData());
     }
 
     @GetMapping("/{id}/avatar-from-fs")
-    public ResponseEntity<byte[]> getAvatarFromFs(@PathVariable long id) {
-        return buildResponseEntity(avatarService.getAvatarFromFs(id));
+    public ResponseEntity<Resource> getAvatarFromFs(@PathVariable long id,
+                                                    @RequestParam(required = false) Integer size,
+                                                    WebRequest request) {
+        AvatarResource avatar = avatarService.getAvatarFromFs(id, size, request::checkNotModified);
+        if (avatar.getResource() == null) {
+            return null;
+        }
+        return httpCachePolicy.okAvatar(avatar.getETag())
+                .contentLength(avatar.getContentLength())
+                .contentType(MediaType.parseMediaType(avatar.getMediaType()))
+                .lastModified(avatar.getLastModified())
+                .body(avatar.getResource());
     }
 
-    private ResponseEntity<byte[]> buildResponseEntity(Pair<byte[], String> pair) {
-        byte[] data = pair.getFirst();
-        return ResponseEntity
-                .status(HttpStatus.OK)
-                .contentLength(data.length)
-                .contentType(MediaType.parseMediaType(pair.getSecond()))
-                .body(data);
-    }
     @GetMapping("/count")
     public long countStudents() {
         return studentService.countStudents();
     }
 
+    @GetMapping(value = "/count", params = {"minAge", "maxAge"})
+    public long countStudents(@RequestParam int minAge, @RequestParam int maxAge,
+                              @RequestParam(required = false) Long facultyId) {
+        return studentService.countStudents(minAge, maxAge, facultyId);
+    }
+
     @GetMapping("/average-age")
     public double averageAge() {
        return studentService.averageAge();
     }
 
+    @GetMapping("/statistics")
+    public StudentStatistics getStatistics() {
+        return studentService.getStatistics();
+    }
+
     @GetMapping("/last-five")
     public List<Student> getLastFiveStudents() {
         return studentService.getLastFiveStudents();
     }
 
+    @GetMapping("/search")
+    public List<SearchHit> search(@RequestParam String q,
+                                  @RequestParam(required = false) Integer page,
+                                  @RequestParam(required = false) Integer size) {
+        return searchService.searchStudents(q, page, size);
+    }
+
     @GetMapping("/names")
     public List<String> getNameOfStudentsWhichStartsWith(@RequestParam char startWith) {
         return studentService.getNameOfStudentsWhichStartsWith(startWith);
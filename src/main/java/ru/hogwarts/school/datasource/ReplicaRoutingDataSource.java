@@ -0,0 +1,142 @@
+package ru.hogwarts.school.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    public static final String PRIMARY = "primary";
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private final Map<String, DataSource> replicas = new LinkedHashMap<>();
+    private final Map<String, Boolean> healthy = new ConcurrentHashMap<>();
+    private final List<String> replicaKeys;
+    private final long readYourWritesWindowNanos;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicLong lastWriteNanos;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration readYourWritesWindow) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + (i + 1);
+            this.replicas.put(key, replicas.get(i));
+            this.healthy.put(key, true);
+            targets.put(key, replicas.get(i));
+        }
+        this.replicaKeys = List.copyOf(this.replicas.keySet());
+        this.readYourWritesWindowNanos = readYourWritesWindow.toNanos();
+        this.lastWriteNanos = new AtomicLong(System.nanoTime() - readYourWritesWindowNanos);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            stampWriteOnCommit();
+            return PRIMARY;
+        }
+        if (System.nanoTime() - lastWriteNanos.get() < readYourWritesWindowNanos) {
+            return PRIMARY;
+        }
+        for (int attempt = 0; attempt < replicaKeys.size(); attempt++) {
+            String key = replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+            if (isHealthy(key)) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    // The window starts when the write becomes visible, a long transaction would otherwise use most of it up
+    private void stampWriteOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lastWriteNanos.set(System.nanoTime());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWriteNanos.set(System.nanoTime());
+            }
+        });
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        String key = (String) determineCurrentLookupKey();
+        DataSource target = (DataSource) getResolvedDataSources().get(key);
+        if (PRIMARY.equals(key)) {
+            return target.getConnection();
+        }
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            markUnhealthy(key, e);
+            return ((DataSource) getResolvedDefaultDataSource()).getConnection();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${applications.datasource.replica-health-interval:PT5S}",
+            fixedDelayString = "${applications.datasource.replica-health-interval:PT5S}")
+    public void checkReplicas() {
+        replicas.forEach((key, replica) -> {
+            try (Connection connection = replica.getConnection()) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    markUnhealthy(key, null);
+                } else if (!isHealthy(key)) {
+                    logger.info("Replica {} is healthy again and receives read-only traffic", key);
+                    healthy.put(key, true);
+                }
+            } catch (SQLException e) {
+                markUnhealthy(key, e);
+            }
+        });
+    }
+
+    public int healthyReplicas() {
+        return (int) replicaKeys.stream().filter(this::isHealthy).count();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void markUnhealthy(String key, SQLException e) {
+        if (isHealthy(key)) {
+            logger.warn("Replica {} failed, read-only traffic falls back to the primary: {}",
+                    key, e == null ? "connection is not valid" : e.getMessage());
+            healthy.put(key, false);
+        }
+    }
+
+    private boolean isHealthy(String key) {
+        return healthy.get(key);
+    }
+}
@@ -0,0 +1,9 @@
+package ru.hogwarts.school.dto;
+
+public interface AgeGroup {
+    int getAge();
+
+    Long getFacultyId();
+
+    long getCount();
+}
@@ -0,0 +1,25 @@
+package ru.hogwarts.school.dto;
+
+public class AvatarBytes {
+    private final byte[] data;
+    private final String mediaType;
+    private final String eTag;
+
+    public AvatarBytes(byte[] data, String mediaType, String eTag) {
+        this.data = data;
+        this.mediaType = mediaType;
+        this.eTag = eTag;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+}
@@ -0,0 +1,37 @@
+package ru.hogwarts.school.dto;
+
+public class AvatarInfo {
+    private final Long id;
+    private final String filePath;
+    private final long fileSize;
+    private final String mediaType;
+    private final Long studentId;
+
+    public AvatarInfo(Long id, String filePath, long fileSize, String mediaType, Long studentId) {
+        this.id = id;
+        this.filePath = filePath;
+        this.fileSize = fileSize;
+        this.mediaType = mediaType;
+        this.studentId = studentId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+}
@@ -0,0 +1,39 @@
+package ru.hogwarts.school.dto;
+
+import org.springframework.core.io.Resource;
+
+public class AvatarResource {
+    private final Resource resource;
+    private final String mediaType;
+    private final long contentLength;
+    private final long lastModified;
+    private final String eTag;
+
+    public AvatarResource(Resource resource, String mediaType, long contentLength, long lastModified, String eTag) {
+        this.resource = resource;
+        this.mediaType = mediaType;
+        this.contentLength = contentLength;
+        this.lastModified = lastModified;
+        this.eTag = eTag;
+    }
+
+    public Resource getResource() {
+        return resource;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+}
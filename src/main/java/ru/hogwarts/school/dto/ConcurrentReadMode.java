@@ -0,0 +1,6 @@
+package ru.hogwarts.school.dto;
+
+public enum ConcurrentReadMode {
+    UNORDERED,
+    ORDERED
+}
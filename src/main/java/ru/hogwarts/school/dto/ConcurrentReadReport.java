@@ -0,0 +1,52 @@
+package ru.hogwarts.school.dto;
+
+import java.util.List;
+
+public class ConcurrentReadReport {
+    private final ConcurrentReadMode mode;
+    private final int threads;
+    private final int batchSize;
+    private final long totalNames;
+    private final long elapsedNanos;
+    private final List<ThreadReadStatistics> threadStatistics;
+    private final List<String> names;
+
+    public ConcurrentReadReport(ConcurrentReadMode mode, int threads, int batchSize, long totalNames, long elapsedNanos,
+                                List<ThreadReadStatistics> threadStatistics, List<String> names) {
+        this.mode = mode;
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.totalNames = totalNames;
+        this.elapsedNanos = elapsedNanos;
+        this.threadStatistics = threadStatistics;
+        this.names = names;
+    }
+
+    public ConcurrentReadMode getMode() {
+        return mode;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getTotalNames() {
+        return totalNames;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public List<ThreadReadStatistics> getThreadStatistics() {
+        return threadStatistics;
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+}
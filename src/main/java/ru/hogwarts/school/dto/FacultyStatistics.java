@@ -0,0 +1,33 @@
+package ru.hogwarts.school.dto;
+
+import java.util.Map;
+
+public class FacultyStatistics {
+    private final Long facultyId;
+    private final long count;
+    private final double averageAge;
+    private final Map<Integer, Long> ageHistogram;
+
+    public FacultyStatistics(Long facultyId, long count, double averageAge, Map<Integer, Long> ageHistogram) {
+        this.facultyId = facultyId;
+        this.count = count;
+        this.averageAge = averageAge;
+        this.ageHistogram = ageHistogram;
+    }
+
+    public Long getFacultyId() {
+        return facultyId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getAverageAge() {
+        return averageAge;
+    }
+
+    public Map<Integer, Long> getAgeHistogram() {
+        return ageHistogram;
+    }
+}
@@ -0,0 +1,19 @@
+package ru.hogwarts.school.dto;
+
+public class ImportError {
+    private final long row;
+    private final String message;
+
+    public ImportError(long row, String message) {
+        this.row = row;
+        this.message = message;
+    }
+
+    public long getRow() {
+        return row;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,27 @@
+package ru.hogwarts.school.dto;
+
+import java.util.List;
+
+public class ImportResult {
+    private final long imported;
+    private final long failed;
+    private final List<ImportError> errors;
+
+    public ImportResult(long imported, long failed, List<ImportError> errors) {
+        this.imported = imported;
+        this.failed = failed;
+        this.errors = errors;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public List<ImportError> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,19 @@
+package ru.hogwarts.school.dto;
+
+public class SearchDocument {
+    private final Long id;
+    private final String value;
+
+    public SearchDocument(Long id, String value) {
+        this.id = id;
+        this.value = value;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,25 @@
+package ru.hogwarts.school.dto;
+
+public class SearchHit {
+    private final long id;
+    private final String value;
+    private final double score;
+
+    public SearchHit(long id, String value, double score) {
+        this.id = id;
+        this.value = value;
+        this.score = score;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,27 @@
+package ru.hogwarts.school.dto;
+
+import java.nio.file.Path;
+
+public class StoredAvatarFile {
+    private final Path path;
+    private final long size;
+    private final String contentHash;
+
+    public StoredAvatarFile(Path path, long size, String contentHash) {
+        this.path = path;
+        this.size = size;
+        this.contentHash = contentHash;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+}
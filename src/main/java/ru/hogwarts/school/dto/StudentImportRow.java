@@ -0,0 +1,45 @@
+package ru.hogwarts.school.dto;
+
+public class StudentImportRow {
+    private final long row;
+    private final String name;
+    private final Integer age;
+    private final Long facultyId;
+    private final String error;
+
+    public StudentImportRow(long row, String name, Integer age, Long facultyId) {
+        this(row, name, age, facultyId, null);
+    }
+
+    private StudentImportRow(long row, String name, Integer age, Long facultyId, String error) {
+        this.row = row;
+        this.name = name;
+        this.age = age;
+        this.facultyId = facultyId;
+        this.error = error;
+    }
+
+    public static StudentImportRow invalid(long row, String error) {
+        return new StudentImportRow(row, null, null, null, error);
+    }
+
+    public long getRow() {
+        return row;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Integer getAge() {
+        return age;
+    }
+
+    public Long getFacultyId() {
+        return facultyId;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
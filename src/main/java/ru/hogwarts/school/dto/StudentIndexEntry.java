@@ -0,0 +1,25 @@
+package ru.hogwarts.school.dto;
+
+public class StudentIndexEntry {
+    private final long id;
+    private final int age;
+    private final Long facultyId;
+
+    public StudentIndexEntry(long id, int age, Long facultyId) {
+        this.id = id;
+        this.age = age;
+        this.facultyId = facultyId;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public Long getFacultyId() {
+        return facultyId;
+    }
+}
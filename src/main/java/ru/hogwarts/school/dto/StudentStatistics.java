@@ -0,0 +1,35 @@
+package ru.hogwarts.school.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class StudentStatistics {
+    private final long count;
+    private final double averageAge;
+    private final Map<Integer, Long> ageHistogram;
+    private final List<FacultyStatistics> faculties;
+
+    public StudentStatistics(long count, double averageAge, Map<Integer, Long> ageHistogram,
+                             List<FacultyStatistics> faculties) {
+        this.count = count;
+        this.averageAge = averageAge;
+        this.ageHistogram = ageHistogram;
+        this.faculties = faculties;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getAverageAge() {
+        return averageAge;
+    }
+
+    public Map<Integer, Long> getAgeHistogram() {
+        return ageHistogram;
+    }
+
+    public List<FacultyStatistics> getFaculties() {
+        return faculties;
+    }
+}
@@ -0,0 +1,39 @@
+package ru.hogwarts.school.dto;
+
+import java.util.List;
+
+public class SumResult {
+    private final long n;
+    private final long result;
+    private final int availableProcessors;
+    private final int parallelism;
+    private final List<SumTiming> timings;
+
+    public SumResult(long n, long result, int availableProcessors, int parallelism, List<SumTiming> timings) {
+        this.n = n;
+        this.result = result;
+        this.availableProcessors = availableProcessors;
+        this.parallelism = parallelism;
+        this.timings = timings;
+    }
+
+    public long getN() {
+        return n;
+    }
+
+    public long getResult() {
+        return result;
+    }
+
+    public int getAvailableProcessors() {
+        return availableProcessors;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public List<SumTiming> getTimings() {
+        return timings;
+    }
+}
@@ -0,0 +1,8 @@
+package ru.hogwarts.school.dto;
+
+public enum SumStrategy {
+    BOXED,
+    PRIMITIVE,
+    PARALLEL,
+    CLOSED_FORM
+}
@@ -0,0 +1,29 @@
+package ru.hogwarts.school.dto;
+
+public class SumTiming {
+    private final SumStrategy strategy;
+    private final long result;
+    private final long durationNanos;
+
+    public SumTiming(SumStrategy strategy, long result, long durationNanos) {
+        this.strategy = strategy;
+        this.result = result;
+        this.durationNanos = durationNanos;
+    }
+
+    public SumStrategy getStrategy() {
+        return strategy;
+    }
+
+    public long getResult() {
+        return result;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public double getDurationMillis() {
+        return durationNanos / 1_000_000.0;
+    }
+}
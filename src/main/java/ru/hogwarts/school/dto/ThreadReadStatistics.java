@@ -0,0 +1,41 @@
+package ru.hogwarts.school.dto;
+
+public class ThreadReadStatistics {
+    private final String threadName;
+    private final int batches;
+    private final long names;
+    private final long readNanos;
+    private final long waitNanos;
+
+    public ThreadReadStatistics(String threadName, int batches, long names, long readNanos, long waitNanos) {
+        this.threadName = threadName;
+        this.batches = batches;
+        this.names = names;
+        this.readNanos = readNanos;
+        this.waitNanos = waitNanos;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public long getNames() {
+        return names;
+    }
+
+    public long getReadNanos() {
+        return readNanos;
+    }
+
+    public long getWaitNanos() {
+        return waitNanos;
+    }
+
+    public double getNamesPerSecond() {
+        return readNanos > 0 ? names * 1_000_000_000.0 / readNanos : 0;
+    }
+}
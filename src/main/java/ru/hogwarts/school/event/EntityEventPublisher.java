@@ -0,0 +1,120 @@
+package ru.hogwarts.school.event;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+@Component
+public class EntityEventPublisher implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public EntityEventPublisher(EntityManagerFactory entityManagerFactory,
+                                       ApplicationEventPublisher eventPublisher) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Student) {
+            publish(event.getId(), null, toState(event.getPersister(), event.getState()));
+        } else if (event.getEntity() instanceof Faculty) {
+            publish(event.getId(), null, toFacultyState(event.getPersister(), event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Student) {
+            publish(event.getId(), toState(event.getPersister(), event.getOldState()),
+                    toState(event.getPersister(), event.getState()));
+        } else if (event.getEntity() instanceof Faculty) {
+            publish(event.getId(), toFacultyState(event.getPersister(), event.getOldState()),
+                    toFacultyState(event.getPersister(), event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Student) {
+            publish(event.getId(), toState(event.getPersister(), event.getDeletedState()), null);
+        } else if (event.getEntity() instanceof Faculty) {
+            publish(event.getId(), toFacultyState(event.getPersister(), event.getDeletedState()), null);
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return Student.class.equals(persister.getMappedClass())
+                || Faculty.class.equals(persister.getMappedClass());
+    }
+
+    private void publish(Object id, StudentState before, StudentState after) {
+        if (before == null && after == null) {
+            return;
+        }
+        eventPublisher.publishEvent(new StudentChangedEvent((Long) id, before, after));
+    }
+
+    private void publish(Object id, FacultyState before, FacultyState after) {
+        if (before == null && after == null) {
+            return;
+        }
+        eventPublisher.publishEvent(new FacultyChangedEvent((Long) id, before, after));
+    }
+
+    private StudentState toState(EntityPersister persister, Object[] state) {
+        if (state == null) {
+            return null;
+        }
+        String name = (String) state[persister.getPropertyIndex("name")];
+        int age = (Integer) state[persister.getPropertyIndex("age")];
+        Faculty faculty = (Faculty) state[persister.getPropertyIndex("faculty")];
+        return new StudentState(name, age, faculty != null ? faculty.getId() : null);
+    }
+
+    private FacultyState toFacultyState(EntityPersister persister, Object[] state) {
+        if (state == null) {
+            return null;
+        }
+        return new FacultyState((String) state[persister.getPropertyIndex("name")],
+                (String) state[persister.getPropertyIndex("color")]);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.hogwarts.school.event;
+
+import java.util.Collection;
+import java.util.List;
+
+public class FacultiesRemovedEvent {
+    private final List<Long> facultyIds;
+
+    public FacultiesRemovedEvent(Collection<Long> facultyIds) {
+        this.facultyIds = List.copyOf(facultyIds);
+    }
+
+    public List<Long> getFacultyIds() {
+        return facultyIds;
+    }
+}
@@ -0,0 +1,25 @@
+package ru.hogwarts.school.event;
+
+public class FacultyChangedEvent {
+    private final long facultyId;
+    private final FacultyState before;
+    private final FacultyState after;
+
+    public FacultyChangedEvent(long facultyId, FacultyState before, FacultyState after) {
+        this.facultyId = facultyId;
+        this.before = before;
+        this.after = after;
+    }
+
+    public long getFacultyId() {
+        return facultyId;
+    }
+
+    public FacultyState getBefore() {
+        return before;
+    }
+
+    public FacultyState getAfter() {
+        return after;
+    }
+}
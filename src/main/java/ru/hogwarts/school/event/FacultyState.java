@@ -0,0 +1,19 @@
+package ru.hogwarts.school.event;
+
+public class FacultyState {
+    private final String name;
+    private final String color;
+
+    public FacultyState(String name, String color) {
+        this.name = name;
+        this.color = color;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getColor() {
+        return color;
+    }
+}
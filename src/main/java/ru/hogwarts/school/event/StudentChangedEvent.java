@@ -0,0 +1,25 @@
+package ru.hogwarts.school.event;
+
+public class StudentChangedEvent {
+    private final long studentId;
+    private final StudentState before;
+    private final StudentState after;
+
+    public StudentChangedEvent(long studentId, StudentState before, StudentState after) {
+        this.studentId = studentId;
+        this.before = before;
+        this.after = after;
+    }
+
+    public long getStudentId() {
+        return studentId;
+    }
+
+    public StudentState getBefore() {
+        return before;
+    }
+
+    public StudentState getAfter() {
+        return after;
+    }
+}
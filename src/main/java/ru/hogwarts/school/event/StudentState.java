@@ -0,0 +1,25 @@
+package ru.hogwarts.school.event;
+
+public class StudentState {
+    private final String name;
+    private final int age;
+    private final Long facultyId;
+
+    public StudentState(String name, int age, Long facultyId) {
+        this.name = name;
+        this.age = age;
+        this.facultyId = facultyId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public Long getFacultyId() {
+        return facultyId;
+    }
+}
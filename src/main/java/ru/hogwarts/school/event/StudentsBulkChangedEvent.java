@@ -0,0 +1,13 @@
+package ru.hogwarts.school.event;
+
+public class StudentsBulkChangedEvent {
+    private final int affectedRows;
+
+    public StudentsBulkChangedEvent(int affectedRows) {
+        this.affectedRows = affectedRows;
+    }
+
+    public int getAffectedRows() {
+        return affectedRows;
+    }
+}
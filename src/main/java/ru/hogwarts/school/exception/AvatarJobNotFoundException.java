@@ -0,0 +1,12 @@
+package ru.hogwarts.school.exception;
+
+public class AvatarJobNotFoundException extends NotFoundException {
+    public AvatarJobNotFoundException(long id) {
+        super(id);
+    }
+
+    @Override
+    public String getMessage() {
+        return "Задача обработки аватарки с id = %d не найдена".formatted(getId());
+    }
+}
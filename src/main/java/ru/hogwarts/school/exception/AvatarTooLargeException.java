@@ -0,0 +1,18 @@
+package ru.hogwarts.school.exception;
+
+public class AvatarTooLargeException extends RuntimeException {
+    private final long maxSize;
+
+    public AvatarTooLargeException(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Размер аватарки превышает %d байт".formatted(maxSize);
+    }
+}
@@ -2,8 +2,10 @@ package ru.hogwarts.school.exception;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 @RestControllerAdvice
 public class HogwartsExceptionHandler {
@@ -19,4 +21,46 @@ public class HogwartsExceptionHandler {
                 body("Не удалось прочитать аватарку из запроса или из файла");
     }
 
+    @ExceptionHandler(AvatarTooLargeException.class)
+    public ResponseEntity<String> handleAvatarTooLargeException(AvatarTooLargeException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).
+                body(e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursorException(InvalidCursorException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).
+                body(e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidSumRequestException.class)
+    public ResponseEntity<String> handleInvalidSumRequestException(InvalidSumRequestException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).
+                body(e.getMessage());
+    }
+
+    @ExceptionHandler(ImportFormatException.class)
+    public ResponseEntity<String> handleImportFormatException(ImportFormatException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).
+                body(e.getMessage());
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<String> handlePreconditionFailedException(PreconditionFailedException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).
+                body(e.getMessage());
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleObjectOptimisticLockingFailureException() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).
+                body("Запись была одновременно изменена другим запросом, повторите попытку");
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<String> handleMaxUploadSizeExceededException() {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).
+                body("Размер аватарки превышает допустимый");
+    }
+
 }
@@ -0,0 +1,7 @@
+package ru.hogwarts.school.exception;
+
+public class ImportFormatException extends RuntimeException {
+    public ImportFormatException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
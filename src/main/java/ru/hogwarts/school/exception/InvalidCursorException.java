@@ -0,0 +1,18 @@
+package ru.hogwarts.school.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    private final String cursor;
+
+    public InvalidCursorException(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Некорректный курсор страницы: %s".formatted(cursor);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.hogwarts.school.exception;
+
+public class InvalidSumRequestException extends RuntimeException {
+    private final long n;
+    private final long maxN;
+
+    public InvalidSumRequestException(long n, long maxN) {
+        this.n = n;
+        this.maxN = maxN;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Число n = %d должно быть в диапазоне от 1 до %d".formatted(n, maxN);
+    }
+}
@@ -0,0 +1,18 @@
+package ru.hogwarts.school.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    private final long id;
+
+    public PreconditionFailedException(long id) {
+        this.id = id;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Запись с id = %d была изменена: версия не совпадает с заголовком If-Match".formatted(id);
+    }
+}
@@ -0,0 +1,36 @@
+package ru.hogwarts.school.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class SampledLogger {
+    private static volatile int sampleRate = 100;
+    private final Logger logger;
+    private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    private SampledLogger(Logger logger) {
+        this.logger = logger;
+    }
+
+    public static SampledLogger getLogger(Class<?> type) {
+        return new SampledLogger(LoggerFactory.getLogger(type));
+    }
+
+    public static void setSampleRate(int rate) {
+        sampleRate = Math.max(1, rate);
+    }
+
+    public void debug(String format, Object... arguments) {
+        if (!logger.isDebugEnabled()) {
+            return;
+        }
+        long count = counters.computeIfAbsent(format, key -> new AtomicLong()).getAndIncrement();
+        if (count % sampleRate == 0) {
+            logger.debug(format, arguments);
+        }
+    }
+}
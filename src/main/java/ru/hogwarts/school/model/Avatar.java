@@ -1,6 +1,5 @@
 package ru.hogwarts.school.model;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 @Entity
@@ -12,10 +11,10 @@ public class Avatar {
     private String filePath;
     private long fileSize;
     private String mediaType;
-    @Column
-    @JsonIgnore
-    private byte[] data;
-    @OneToOne
+    private String contentHash;
+    @Version
+    private long version;
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id")
     private Student student;
 
@@ -54,12 +53,16 @@ public class Avatar {
         this.mediaType = mediaType;
     }
 
-    public byte[] getData() {
-        return data;
+    public String getContentHash() {
+        return contentHash;
     }
 
-    public void setData(byte[] data) {
-        this.data = data;
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public long getVersion() {
+        return version;
     }
 
     public Student getStudent() {
@@ -0,0 +1,43 @@
+package ru.hogwarts.school.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "avatar_data")
+public class AvatarData {
+    @Id
+    private Long id;
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "avatar_id")
+    private Avatar avatar;
+    @Column(length = 10 * 1024 * 1024)
+    private byte[] data;
+
+    public AvatarData() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Avatar getAvatar() {
+        return avatar;
+    }
+
+    public void setAvatar(Avatar avatar) {
+        this.avatar = avatar;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+}
@@ -0,0 +1,137 @@
+package ru.hogwarts.school.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "avatar_job")
+public class AvatarJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private long studentId;
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private AvatarJobStatus status;
+    @JsonIgnore
+    @Column(length = 1024)
+    private String stagedPath;
+    private long fileSize;
+    private String mediaType;
+    private Boolean storeInDb;
+    private int attempts;
+    @JsonIgnore
+    private Instant nextAttemptAt;
+    @Column(length = 1024)
+    private String error;
+    private Instant createdAt;
+    private Instant updatedAt;
+    @Version
+    @JsonIgnore
+    private long version;
+
+    public AvatarJob() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(long studentId) {
+        this.studentId = studentId;
+    }
+
+    public AvatarJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AvatarJobStatus status) {
+        this.status = status;
+    }
+
+    public String getStagedPath() {
+        return stagedPath;
+    }
+
+    public void setStagedPath(String stagedPath) {
+        this.stagedPath = stagedPath;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public void setMediaType(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public Boolean getStoreInDb() {
+        return storeInDb;
+    }
+
+    public void setStoreInDb(Boolean storeInDb) {
+        this.storeInDb = storeInDb;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Instant nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
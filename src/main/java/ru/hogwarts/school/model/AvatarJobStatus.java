@@ -0,0 +1,8 @@
+package ru.hogwarts.school.model;
+
+public enum AvatarJobStatus {
+    PENDING,
+    PROCESSING,
+    DONE,
+    FAILED
+}
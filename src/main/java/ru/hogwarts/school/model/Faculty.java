@@ -1,20 +1,33 @@
 package ru.hogwarts.school.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 
 import java.util.Objects;
 @Entity
 @Table (name = "faculties")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Faculty {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String name;
     private String color;
+    @Version
+    @JsonIgnore
+    private long version;
 
     public Faculty() {
     }
 
+    public Faculty(Faculty faculty) {
+        this.id = faculty.getId();
+        this.name = faculty.getName();
+        this.color = faculty.getColor();
+        this.version = faculty.getVersion();
+    }
+
     public Long getId() {
         return id;
     }
@@ -39,6 +52,10 @@ public class Faculty {
         this.color = color;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
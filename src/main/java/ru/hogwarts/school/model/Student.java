@@ -1,24 +1,40 @@
 package ru.hogwarts.school.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.util.Objects;
 
 @Entity
 @Table(name = "student")
+@NamedEntityGraph(name = Student.WITH_FACULTY, attributeNodes = @NamedAttributeNode("faculty"))
 public class Student {
+    public static final String WITH_FACULTY = "Student.faculty";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_seq")
+    @SequenceGenerator(name = "student_seq", sequenceName = "student_seq", allocationSize = 50)
     private Long id;
     private String name;
     private int age;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "faculty_id")
     private Faculty faculty;
+    @Version
+    @JsonIgnore
+    private long version;
 
     public Student() {
     }
 
+    public Student(Student student) {
+        this.id = student.getId();
+        this.name = student.getName();
+        this.age = student.getAge();
+        this.faculty = student.getFaculty() == null ? null : new Faculty(student.getFaculty());
+        this.version = student.getVersion();
+    }
+
     public Long getId() {
         return id;
     }
@@ -43,6 +59,10 @@ public class Student {
         this.age = age;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,23 @@
+package ru.hogwarts.school.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.model.AvatarData;
+
+import java.util.Collection;
+
+@Repository
+public interface AvatarDataRepository extends JpaRepository<AvatarData, Long> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM AvatarData d WHERE d.id IN (SELECT a.id FROM Avatar a WHERE a.student.id IN :studentIds)")
+    int deleteByStudentIdIn(@Param("studentIds") Collection<Long> studentIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM AvatarData d WHERE d.id IN (SELECT a.id FROM Avatar a WHERE a.student.id IN " +
+            "(SELECT s.id FROM Student s WHERE s.age BETWEEN :minAge AND :maxAge))")
+    int deleteByStudentAgeBetween(@Param("minAge") int minAge, @Param("maxAge") int maxAge);
+}
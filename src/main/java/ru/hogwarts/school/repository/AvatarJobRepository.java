@@ -0,0 +1,38 @@
+package ru.hogwarts.school.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.model.AvatarJob;
+import ru.hogwarts.school.model.AvatarJobStatus;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AvatarJobRepository extends JpaRepository<AvatarJob, Long> {
+
+    // Lock timeout -2 is Hibernate's SKIP LOCKED: concurrent workers claim different jobs instead of waiting
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT j FROM AvatarJob j WHERE j.status IN :statuses AND j.nextAttemptAt <= :now ORDER BY j.id")
+    List<AvatarJob> findDueForUpdate(@Param("statuses") Collection<AvatarJobStatus> statuses,
+                                     @Param("now") Instant now,
+                                     Limit limit);
+
+    boolean existsByStagedPath(String stagedPath);
+
+    @Modifying
+    @Query("DELETE FROM AvatarJob j WHERE j.status IN :statuses AND j.updatedAt < :before")
+    int deleteFinishedBefore(@Param("statuses") Collection<AvatarJobStatus> statuses,
+                             @Param("before") Instant before);
+}
@@ -1,9 +1,17 @@
 package ru.hogwarts.school.repository;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.dto.AvatarInfo;
 import ru.hogwarts.school.model.Avatar;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +20,22 @@ public interface AvatarRepository extends JpaRepository<Avatar, Long> {
 
     Optional<Avatar> findByStudent_Id(long studentId);
 
+    long countByContentHash(String contentHash);
+
+    @Query(value = "SELECT new ru.hogwarts.school.dto.AvatarInfo(a.id, a.filePath, a.fileSize, a.mediaType, a.student.id) " +
+            "FROM Avatar a ORDER BY a.id",
+            countQuery = "SELECT COUNT(a) FROM Avatar a")
+    Page<AvatarInfo> findAvatarInfos(Pageable pageable);
+
+    @Query("SELECT new ru.hogwarts.school.dto.AvatarInfo(a.id, a.filePath, a.fileSize, a.mediaType, a.student.id) " +
+            "FROM Avatar a WHERE a.id > :id ORDER BY a.id")
+    List<AvatarInfo> findAvatarInfosAfter(@Param("id") long id, Limit limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Avatar a WHERE a.student.id IN :studentIds")
+    int deleteByStudentIdIn(@Param("studentIds") Collection<Long> studentIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Avatar a WHERE a.student.id IN (SELECT s.id FROM Student s WHERE s.age BETWEEN :minAge AND :maxAge)")
+    int deleteByStudentAgeBetween(@Param("minAge") int minAge, @Param("maxAge") int maxAge);
 }
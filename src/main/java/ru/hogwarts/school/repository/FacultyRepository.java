@@ -1,12 +1,75 @@
 package ru.hogwarts.school.repository;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.configuration.CacheConfiguration;
+import ru.hogwarts.school.dto.SearchDocument;
 import ru.hogwarts.school.model.Faculty;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface FacultyRepository extends JpaRepository<Faculty, Long> {
     List<Faculty> findAllByColor(String color);
+    List<Faculty> findAllByColorAndIdGreaterThanOrderById(String color, long id, Limit limit);
     List<Faculty> findAllByNameIgnoreCaseOrColorIgnoreCase(String name, String color);
+
+    @Query("SELECT new ru.hogwarts.school.dto.SearchDocument(f.id, f.name) FROM Faculty f WHERE f.name IS NOT NULL")
+    List<SearchDocument> findNameSearchDocuments();
+
+    @Query("SELECT new ru.hogwarts.school.dto.SearchDocument(f.id, f.color) FROM Faculty f WHERE f.color IS NOT NULL")
+    List<SearchDocument> findColorSearchDocuments();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @CacheEvict(cacheNames = {CacheConfiguration.FACULTIES, CacheConfiguration.STUDENTS}, allEntries = true)
+    @Query("DELETE FROM Faculty f WHERE f.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Bypasses the faculties cache: returns the entity managed by the current transaction
+    Optional<Faculty> readById(long id);
+
+    @Override
+    @Cacheable(cacheNames = CacheConfiguration.FACULTIES, unless = "#result == null")
+    Optional<Faculty> findById(Long id);
+
+    @Override
+    @Caching(put = @CachePut(cacheNames = CacheConfiguration.FACULTIES, key = "#result.id"),
+            evict = @CacheEvict(cacheNames = CacheConfiguration.STUDENTS, allEntries = true))
+    <S extends Faculty> S save(S faculty);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.FACULTIES, CacheConfiguration.STUDENTS}, allEntries = true)
+    <S extends Faculty> List<S> saveAll(Iterable<S> faculties);
+
+    @Override
+    @Caching(evict = {@CacheEvict(cacheNames = CacheConfiguration.FACULTIES, key = "#p0.id"),
+            @CacheEvict(cacheNames = CacheConfiguration.STUDENTS, allEntries = true)})
+    void delete(Faculty faculty);
+
+    @Override
+    @Caching(evict = {@CacheEvict(cacheNames = CacheConfiguration.FACULTIES, key = "#p0"),
+            @CacheEvict(cacheNames = CacheConfiguration.STUDENTS, allEntries = true)})
+    void deleteById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.FACULTIES, CacheConfiguration.STUDENTS}, allEntries = true)
+    void deleteAll(Iterable<? extends Faculty> faculties);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.FACULTIES, CacheConfiguration.STUDENTS}, allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.FACULTIES, CacheConfiguration.STUDENTS}, allEntries = true)
+    void deleteAllInBatch();
 }
@@ -1,23 +1,159 @@
 package ru.hogwarts.school.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.configuration.CacheConfiguration;
+import ru.hogwarts.school.dto.AgeGroup;
+import ru.hogwarts.school.dto.SearchDocument;
+import ru.hogwarts.school.dto.StudentIndexEntry;
+import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Long> {
+    String STREAM_FETCH_SIZE = "1000";
+
+    @EntityGraph(Student.WITH_FACULTY)
     List<Student> findAllByAge(int age);
+
+    @EntityGraph(Student.WITH_FACULTY)
     List<Student> findAllByAgeBetween(int minAge, int maxAge);
+
+    @EntityGraph(Student.WITH_FACULTY)
     List<Student> findAllByFaculty_Id(long facultyId);
 
+    @EntityGraph(Student.WITH_FACULTY)
+    List<Student> findAllByAgeAndIdGreaterThanOrderById(int age, long id, Limit limit);
+
+    @EntityGraph(Student.WITH_FACULTY)
+    List<Student> findAllByAgeBetweenAndIdGreaterThanOrderById(int minAge, int maxAge, long id, Limit limit);
+
+    @EntityGraph(Student.WITH_FACULTY)
+    List<Student> findAllByFaculty_IdAndIdGreaterThanOrderById(long facultyId, long id, Limit limit);
+
+    @EntityGraph(Student.WITH_FACULTY)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<Student> streamAllByAgeOrderById(int age);
+
+    @EntityGraph(Student.WITH_FACULTY)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<Student> streamAllByAgeBetweenOrderById(int minAge, int maxAge);
+
+    @EntityGraph(Student.WITH_FACULTY)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<Student> streamAllByFaculty_IdOrderById(long facultyId);
+
+    @Query("SELECT MIN(s.id) FROM Student s")
+    Long findMinId();
+
+    @Query("SELECT MAX(s.id) FROM Student s")
+    Long findMaxId();
+
+    @Query("SELECT s.name FROM Student s WHERE s.id >= :fromId AND s.id < :toId ORDER BY s.id")
+    List<String> findNamesByIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
     @Query(value = "SELECT COUNT(*) FROM Student", nativeQuery = true)
     long countStudents();
 
-    @Query(value = "SELECT AVG(age) FROM Student", nativeQuery = true)
+    @Query("SELECT COALESCE(AVG(s.age), 0) FROM Student s")
     double averageAge();
 
-    @Query(value = "SELECT * FROM Student ORDER BY id DESC LIMIT 5", nativeQuery = true)
+    @Query("SELECT s.age AS age, f.id AS facultyId, COUNT(s) AS count FROM Student s LEFT JOIN s.faculty f " +
+            "GROUP BY s.age, f.id")
+    List<AgeGroup> getAgeGroups();
+
+    @Query("SELECT UPPER(s.name) FROM Student s WHERE UPPER(s.name) LIKE :prefix ESCAPE '!' ORDER BY UPPER(s.name)")
+    List<String> findUpperCaseNamesLike(@Param("prefix") String prefix);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("SELECT new ru.hogwarts.school.dto.StudentIndexEntry(s.id, s.age, f.id) FROM Student s LEFT JOIN s.faculty f")
+    Stream<StudentIndexEntry> streamIndexEntries();
+
+    @Query("SELECT new ru.hogwarts.school.dto.StudentIndexEntry(s.id, s.age, f.id) FROM Student s LEFT JOIN s.faculty f WHERE s.id IN :ids")
+    List<StudentIndexEntry> findIndexEntriesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(Student.WITH_FACULTY)
+    List<Student> findAllByIdInAndAgeBetweenOrderById(Collection<Long> ids, int minAge, int maxAge);
+
+    long countByAgeBetween(int minAge, int maxAge);
+
+    long countByAgeBetweenAndFaculty_Id(int minAge, int maxAge, long facultyId);
+
+    @Query("SELECT new ru.hogwarts.school.dto.SearchDocument(s.id, s.name) FROM Student s WHERE s.name IS NOT NULL")
+    List<SearchDocument> findNameSearchDocuments();
+
+    @Query("SELECT s FROM Student s LEFT JOIN FETCH s.faculty ORDER BY s.id DESC LIMIT 5")
     List<Student> getLastFiveStudents();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @CacheEvict(cacheNames = CacheConfiguration.STUDENTS, allEntries = true)
+    @Query("UPDATE VERSIONED Student s SET s.faculty = :toFaculty WHERE s.faculty.id = :fromFacultyId")
+    int moveToFaculty(@Param("fromFacultyId") long fromFacultyId, @Param("toFaculty") Faculty toFaculty);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @CacheEvict(cacheNames = CacheConfiguration.STUDENTS, allEntries = true)
+    @Query("UPDATE VERSIONED Student s SET s.faculty = null WHERE s.faculty.id IN :facultyIds")
+    int detachFromFaculties(@Param("facultyIds") Collection<Long> facultyIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @CacheEvict(cacheNames = CacheConfiguration.STUDENTS, allEntries = true)
+    @Query("DELETE FROM Student s WHERE s.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @CacheEvict(cacheNames = CacheConfiguration.STUDENTS, allEntries = true)
+    @Query("DELETE FROM Student s WHERE s.age BETWEEN :minAge AND :maxAge")
+    int deleteByAgeBetween(@Param("minAge") int minAge, @Param("maxAge") int maxAge);
+
+    // Bypasses the students cache: returns the entity managed by the current transaction
+    @EntityGraph(Student.WITH_FACULTY)
+    Optional<Student> readById(long id);
+
+    @Override
+    @EntityGraph(Student.WITH_FACULTY)
+    @Cacheable(cacheNames = CacheConfiguration.STUDENTS, unless = "#result == null")
+    Optional<Student> findById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.STUDENTS, key = "#p0.id", condition = "#p0.id != null")
+    <S extends Student> S save(S student);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.STUDENTS, allEntries = true)
+    <S extends Student> List<S> saveAll(Iterable<S> students);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.STUDENTS, key = "#p0.id")
+    void delete(Student student);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.STUDENTS, key = "#p0")
+    void deleteById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.STUDENTS, allEntries = true)
+    void deleteAll(Iterable<? extends Student> students);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.STUDENTS, allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.STUDENTS, allEntries = true)
+    void deleteAllInBatch();
 }
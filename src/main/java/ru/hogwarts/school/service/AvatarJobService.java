@@ -0,0 +1,247 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import ru.hogwarts.school.exception.AvatarJobNotFoundException;
+import ru.hogwarts.school.exception.AvatarProcessingException;
+import ru.hogwarts.school.exception.AvatarTooLargeException;
+import ru.hogwarts.school.exception.NotFoundException;
+import ru.hogwarts.school.logging.SampledLogger;
+import ru.hogwarts.school.model.AvatarJob;
+import ru.hogwarts.school.model.AvatarJobStatus;
+import ru.hogwarts.school.repository.AvatarJobRepository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class AvatarJobService {
+    private static final Logger logger = LoggerFactory.getLogger(AvatarJobService.class);
+    private static final SampledLogger invocationLogger = SampledLogger.getLogger(AvatarJobService.class);
+    private static final List<AvatarJobStatus> CLAIMABLE = List.of(AvatarJobStatus.PENDING, AvatarJobStatus.PROCESSING);
+    private static final List<AvatarJobStatus> FINISHED = List.of(AvatarJobStatus.DONE, AvatarJobStatus.FAILED);
+    private static final int MAX_ERROR_LENGTH = 1024;
+    private final AvatarJobRepository avatarJobRepository;
+    private final AvatarService avatarService;
+    private final AvatarStore avatarStore;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor executor;
+    private final int threads;
+    private final Duration pollInterval;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration retention;
+    private final Object signal = new Object();
+    private volatile boolean running;
+
+    public AvatarJobService(AvatarJobRepository avatarJobRepository,
+                            AvatarService avatarService,
+                            AvatarStore avatarStore,
+                            PlatformTransactionManager transactionManager,
+                            @Qualifier("avatarJobExecutor") TaskExecutor executor,
+                            @Value("${applications.avatar-jobs.threads:2}") int threads,
+                            @Value("${applications.avatar-jobs.poll-interval:PT1S}") Duration pollInterval,
+                            @Value("${applications.avatar-jobs.lease:PT5M}") Duration lease,
+                            @Value("${applications.avatar-jobs.max-attempts:5}") int maxAttempts,
+                            @Value("${applications.avatar-jobs.retry-backoff:PT2S}") Duration retryBackoff,
+                            @Value("${applications.avatar-jobs.retention:P7D}") Duration retention) {
+        this.avatarJobRepository = avatarJobRepository;
+        this.avatarService = avatarService;
+        this.avatarStore = avatarStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.threads = threads;
+        this.pollInterval = pollInterval;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.retention = retention;
+    }
+
+    public AvatarJob submit(MultipartFile multipartFile, long studentId, Boolean storeInDb) {
+        invocationLogger.debug("Was invoked method for \"submit\" avatar job");
+        Path stagedPath;
+        try {
+            stagedPath = avatarStore.stage(multipartFile.getInputStream(), multipartFile.getSize());
+        } catch (IOException e) {
+            logger.error("Blowout exception \"AvatarProcessingException\"");
+            throw new AvatarProcessingException();
+        }
+        Instant now = Instant.now();
+        AvatarJob job = new AvatarJob();
+        job.setStudentId(studentId);
+        job.setStatus(AvatarJobStatus.PENDING);
+        job.setStagedPath(stagedPath.toString());
+        job.setFileSize(multipartFile.getSize());
+        job.setMediaType(multipartFile.getContentType());
+        job.setStoreInDb(storeInDb);
+        job.setNextAttemptAt(now);
+        job.setCreatedAt(now);
+        job.setUpdatedAt(now);
+        try {
+            job = avatarJobRepository.save(job);
+        } catch (RuntimeException e) {
+            avatarStore.discard(stagedPath);
+            throw e;
+        }
+        wakeUp();
+        return job;
+    }
+
+    public AvatarJob get(long id) {
+        invocationLogger.debug("Was invoked method for get avatar job with id = {}", id);
+        return avatarJobRepository.findById(id).orElseThrow(() -> new AvatarJobNotFoundException(id));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        logger.info("Starting {} avatar job workers", threads);
+        running = true;
+        for (int i = 0; i < threads; i++) {
+            executor.execute(this::work);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        running = false;
+        wakeUp();
+    }
+
+    @Scheduled(initialDelayString = "${applications.avatar-jobs.cleanup-interval:PT1H}",
+            fixedDelayString = "${applications.avatar-jobs.cleanup-interval:PT1H}")
+    public void deleteFinishedJobs() {
+        Integer deleted = transactionTemplate.execute(status ->
+                avatarJobRepository.deleteFinishedBefore(FINISHED, Instant.now().minus(retention)));
+        logger.info("Avatar job cleanup removed {} finished jobs", deleted);
+    }
+
+    private void wakeUp() {
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    private void work() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                Optional<AvatarJob> job = claim();
+                if (job.isPresent()) {
+                    process(job.get());
+                } else {
+                    await();
+                }
+            } catch (RuntimeException e) {
+                logger.error("Avatar job worker failed to poll the queue", e);
+                await();
+            }
+        }
+    }
+
+    private void await() {
+        synchronized (signal) {
+            try {
+                signal.wait(pollInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Optional<AvatarJob> claim() {
+        return Optional.ofNullable(transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            while (true) {
+                List<AvatarJob> jobs = avatarJobRepository.findDueForUpdate(CLAIMABLE, now, Limit.of(1));
+                if (jobs.isEmpty()) {
+                    return null;
+                }
+                // A PROCESSING job is only due again when its lease expired, e.g. after a worker crash
+                AvatarJob job = jobs.get(0);
+                if (job.getAttempts() >= maxAttempts) {
+                    // Its worker died on every attempt, running it again would only take down another one
+                    logger.warn("Avatar job {} lost its worker {} times and is given up", job.getId(), job.getAttempts());
+                    job.setError("Обработка аватара прервалась после " + job.getAttempts() + " попыток");
+                    job.setUpdatedAt(now);
+                    markFailed(job);
+                    continue;
+                }
+                job.setStatus(AvatarJobStatus.PROCESSING);
+                job.setAttempts(job.getAttempts() + 1);
+                job.setNextAttemptAt(now.plus(lease));
+                job.setUpdatedAt(now);
+                return job;
+            }
+        }));
+    }
+
+    private void process(AvatarJob job) {
+        try {
+            avatarService.processAvatarJob(job.getId());
+            logger.debug("Avatar job {} is done after {} attempts", job.getId(), job.getAttempts());
+        } catch (RuntimeException e) {
+            fail(job, e);
+        }
+    }
+
+    private void fail(AvatarJob claimedJob, RuntimeException e) {
+        boolean permanent = e instanceof NotFoundException || e instanceof AvatarTooLargeException
+                || claimedJob.getAttempts() >= maxAttempts;
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        if (permanent) {
+            logger.warn("Avatar job {} failed after {} attempts: {}", claimedJob.getId(), claimedJob.getAttempts(), error);
+        } else {
+            logger.info("Avatar job {} failed on attempt {} and will be retried: {}",
+                    claimedJob.getId(), claimedJob.getAttempts(), error);
+        }
+        transactionTemplate.executeWithoutResult(status -> avatarJobRepository.findById(claimedJob.getId())
+                // Another worker may have reclaimed the job after the lease expired
+                .filter(job -> job.getStatus() == AvatarJobStatus.PROCESSING && job.getVersion() == claimedJob.getVersion())
+                .ifPresent(job -> {
+                    Instant now = Instant.now();
+                    job.setError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+                    job.setUpdatedAt(now);
+                    if (permanent) {
+                        markFailed(job);
+                    } else {
+                        job.setStatus(AvatarJobStatus.PENDING);
+                        job.setNextAttemptAt(now.plus(retryBackoff.multipliedBy(1L << Math.min(job.getAttempts() - 1, 10))));
+                    }
+                }));
+    }
+
+    private void markFailed(AvatarJob job) {
+        job.setStatus(AvatarJobStatus.FAILED);
+        if (job.getStagedPath() == null) {
+            return;
+        }
+        Path stagedPath = Paths.get(job.getStagedPath());
+        job.setStagedPath(null);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                avatarStore.discard(stagedPath);
+            }
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class AvatarPreviewService {
+    private static final Logger logger = LoggerFactory.getLogger(AvatarPreviewService.class);
+    private static final String PREVIEW_FORMAT = "png";
+    public static final String PREVIEW_MEDIA_TYPE = "image/png";
+    private final TaskExecutor executor;
+    private final List<Integer> sizes;
+
+    public AvatarPreviewService(@Qualifier("avatarPreviewExecutor") TaskExecutor executor,
+                                @Value("${applications.avatars-preview-sizes:64,256}") List<Integer> sizes) {
+        this.executor = executor;
+        this.sizes = sizes.stream().sorted().toList();
+    }
+
+    public void generatePreviews(Path original) {
+        executor.execute(() -> sizes.forEach(size -> generatePreview(original, size)));
+    }
+
+    public Optional<Path> findPreview(Path original, int requestedSize) {
+        return sizes.stream()
+                .filter(size -> size >= requestedSize)
+                .findFirst()
+                .map(size -> previewPath(original, size))
+                .filter(Files::isReadable);
+    }
+
+    private void generatePreview(Path original, int size) {
+        Path previewPath = previewPath(original, size);
+        if (Files.exists(previewPath)) {
+            return;
+        }
+        try {
+            BufferedImage image = ImageIO.read(original.toFile());
+            if (image == null) {
+                logger.warn("File {} is not a readable image, preview skipped", original);
+                return;
+            }
+            double scale = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+            int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+            BufferedImage preview = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = preview.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(image, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            Path tempPath = Files.createTempFile(previewPath.getParent(), "preview-", ".tmp");
+            try {
+                ImageIO.write(preview, PREVIEW_FORMAT, tempPath.toFile());
+                Files.move(tempPath, previewPath, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempPath);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to generate {}px preview for {}", size, original, e);
+        }
+    }
+
+    private Path previewPath(Path original, int size) {
+        String fileName = StringUtils.stripFilenameExtension(original.getFileName().toString());
+        return original.resolveSibling(fileName + "-" + size + "." + PREVIEW_FORMAT);
+    }
+}
@@ -1,91 +1,219 @@
 package ru.hogwarts.school.service;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.hogwarts.school.dto.AvatarBytes;
+import ru.hogwarts.school.dto.AvatarInfo;
+import ru.hogwarts.school.dto.AvatarResource;
+import ru.hogwarts.school.dto.CursorPage;
+import ru.hogwarts.school.dto.StoredAvatarFile;
+import ru.hogwarts.school.exception.AvatarJobNotFoundException;
 import ru.hogwarts.school.exception.AvatarProcessingException;
 import ru.hogwarts.school.exception.StudentNotFoundException;
+import ru.hogwarts.school.logging.SampledLogger;
 import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarData;
+import ru.hogwarts.school.model.AvatarJob;
+import ru.hogwarts.school.model.AvatarJobStatus;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarDataRepository;
+import ru.hogwarts.school.repository.AvatarJobRepository;
 import ru.hogwarts.school.repository.AvatarRepository;
 import ru.hogwarts.school.repository.StudentRepository;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
 import java.util.List;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.function.BiPredicate;
 
 
 @Service
 
 public class AvatarService {
     private static final Logger logger = LoggerFactory.getLogger(AvatarService.class);
+    private static final SampledLogger invocationLogger = SampledLogger.getLogger(AvatarService.class);
     private final StudentRepository studentRepository;
     private final AvatarRepository avatarRepository;
-    private final Path path;
+    private final AvatarDataRepository avatarDataRepository;
+    private final AvatarJobRepository avatarJobRepository;
+    private final AvatarPreviewService avatarPreviewService;
+    private final AvatarStore avatarStore;
+    private final KeysetPaginator keysetPaginator;
+    private final boolean storeInDb;
+    private final Counter bytesServedFromDb;
+    private final Counter bytesServedFromFs;
 
 
     public AvatarService(StudentRepository studentRepository,
                          AvatarRepository avatarRepository,
-                         @Value("${applications.avatars-dir-name}") String avatarsDirName) {
+                         AvatarDataRepository avatarDataRepository,
+                         AvatarJobRepository avatarJobRepository,
+                         AvatarPreviewService avatarPreviewService,
+                         AvatarStore avatarStore,
+                         KeysetPaginator keysetPaginator,
+                         MeterRegistry meterRegistry,
+                         @Value("${applications.avatars-store-in-db:false}") boolean storeInDb) {
         this.studentRepository = studentRepository;
         this.avatarRepository = avatarRepository;
-        path = Paths.get(avatarsDirName);
+        this.avatarDataRepository = avatarDataRepository;
+        this.avatarJobRepository = avatarJobRepository;
+        this.avatarPreviewService = avatarPreviewService;
+        this.avatarStore = avatarStore;
+        this.keysetPaginator = keysetPaginator;
+        this.storeInDb = storeInDb;
+        this.bytesServedFromDb = bytesServedCounter(meterRegistry, "db");
+        this.bytesServedFromFs = bytesServedCounter(meterRegistry, "fs");
+    }
+
+    private static Counter bytesServedCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("avatar.bytes.served")
+                .description("Avatar bytes served to clients")
+                .baseUnit("bytes")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    public void processAvatarJob(long jobId) {
+        invocationLogger.debug("Was invoked method for \"processAvatarJob\" with id = {}", jobId);
+        AvatarJob job = avatarJobRepository.findById(jobId)
+                .orElseThrow(() -> new AvatarJobNotFoundException(jobId));
+        Path stagedPath = Paths.get(job.getStagedPath());
+        try (InputStream inputStream = Files.newInputStream(stagedPath)) {
+            uploadAvatar(inputStream, job.getFileSize(), job.getMediaType(), job.getStudentId(), job.getStoreInDb());
+        } catch (IOException e) {
+            logger.error("Blowout exception \"AvatarProcessingException\"");
+            throw new AvatarProcessingException();
+        }
+        job.setStatus(AvatarJobStatus.DONE);
+        job.setError(null);
+        job.setStagedPath(null);
+        job.setUpdatedAt(Instant.now());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                avatarStore.discard(stagedPath);
+            }
+        });
     }
 
     @Transactional
-    public void uploadAvatar(MultipartFile multipartFile, long studentId) {
-        logger.info("Was invoked method for \"uploadAvatar\"");
+    public void uploadAvatar(InputStream inputStream, long size, String mediaType, long studentId, Boolean storeInDb) {
+        invocationLogger.debug("Was invoked method for \"uploadAvatar\"");
+        Student student = studentRepository.findById(studentId)
+                .orElseThrow(() -> new StudentNotFoundException(studentId));
         try {
-            byte[] data = multipartFile.getBytes();
-            String extension = StringUtils.getFilenameExtension(multipartFile.getOriginalFilename());
-            Path avatarPath = path.resolve(UUID.randomUUID() + "." + extension);
-            Files.write(avatarPath, data);
-            Student student = studentRepository.findById(studentId)
-                    .orElseThrow(() -> new StudentNotFoundException(studentId));
+            StoredAvatarFile storedFile = avatarStore.store(inputStream, size);
             Avatar avatar = avatarRepository.findByStudent_Id(studentId).
                     orElseGet(Avatar::new);
+            String oldContentHash = avatar.getContentHash();
             avatar.setStudent(student);
-            avatar.setData(data);
-            avatar.setFileSize(data.length);
-            avatar.setMediaType(multipartFile.getContentType());
-            avatar.setFilePath(avatarPath.toString());
-            avatarRepository.save(avatar);
+            avatar.setFileSize(storedFile.getSize());
+            avatar.setMediaType(mediaType);
+            avatar.setFilePath(storedFile.getPath().toString());
+            avatar.setContentHash(storedFile.getContentHash());
+            avatar = avatarRepository.save(avatar);
+            Optional<AvatarData> avatarData = avatarDataRepository.findById(avatar.getId());
+            if (storeInDb != null ? storeInDb : this.storeInDb) {
+                AvatarData newAvatarData = avatarData.orElseGet(AvatarData::new);
+                newAvatarData.setAvatar(avatar);
+                newAvatarData.setData(Files.readAllBytes(storedFile.getPath()));
+                avatarDataRepository.save(newAvatarData);
+            } else {
+                avatarData.ifPresent(avatarDataRepository::delete);
+            }
+            avatarPreviewService.generatePreviews(storedFile.getPath());
+            if (oldContentHash != null && !oldContentHash.equals(storedFile.getContentHash())) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        avatarStore.release(oldContentHash);
+                    }
+                });
+            }
         } catch (IOException e) {
             logger.error("Blowout exception \"AvatarProcessingException\"");
             throw new AvatarProcessingException();
         }
     }
 
-    public Pair<byte[], String> getAvatarFromDb(long studentId) {
-        logger.info("Was invoked method for \"getAvatarFromDb\"");
+    @Transactional(readOnly = true)
+    public AvatarBytes getAvatarFromDb(long studentId, BiPredicate<String, Long> notModified) {
+        invocationLogger.debug("Was invoked method for \"getAvatarFromDb\"");
         Avatar avatar = avatarRepository.findByStudent_Id(studentId).
                 orElseThrow(() -> new StudentNotFoundException(studentId));
-        return Pair.of(avatar.getData(), avatar.getMediaType());
+        String eTag = eTag(avatar);
+        // The validator only needs the avatar row, the blob is not read for a 304
+        if (notModified.test(eTag, -1L)) {
+            return new AvatarBytes(null, avatar.getMediaType(), eTag);
+        }
+        AvatarData avatarData = avatarDataRepository.findById(avatar.getId()).
+                orElseThrow(() -> new StudentNotFoundException(studentId));
+        bytesServedFromDb.increment(avatarData.getData().length);
+        return new AvatarBytes(avatarData.getData(), avatar.getMediaType(), eTag);
     }
 
-    public Pair<byte[], String> getAvatarFromFs(long studentId) {
-        logger.info("Was invoked method for \"getAvatarFromFs\"");
+    @Transactional(readOnly = true)
+    public AvatarResource getAvatarFromFs(long studentId, Integer size, BiPredicate<String, Long> notModified) {
+        invocationLogger.debug("Was invoked method for \"getAvatarFromFs\"");
+        Avatar avatar = avatarRepository.findByStudent_Id(studentId).
+                orElseThrow(() -> new StudentNotFoundException(studentId));
+        Path avatarPath = Paths.get(avatar.getFilePath());
+        String mediaType = avatar.getMediaType();
+        String representation = "";
+        if (size != null) {
+            Optional<Path> previewPath = avatarPreviewService.findPreview(avatarPath, size);
+            if (previewPath.isPresent()) {
+                avatarPath = previewPath.get();
+                mediaType = AvatarPreviewService.PREVIEW_MEDIA_TYPE;
+                representation = "-" + avatarPath.getFileName();
+            }
+        }
         try {
-            Avatar avatar = avatarRepository.findByStudent_Id(studentId).
-                    orElseThrow(() -> new StudentNotFoundException(studentId));
-            return Pair.of(Files.readAllBytes(Paths.get(avatar.getFilePath())), avatar.getMediaType());
+            BasicFileAttributes attributes = Files.readAttributes(avatarPath, BasicFileAttributes.class);
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            String eTag = eTag(avatar) + representation;
+            if (notModified.test(eTag, lastModified)) {
+                return new AvatarResource(null, mediaType, attributes.size(), lastModified, eTag);
+            }
+            bytesServedFromFs.increment(attributes.size());
+            return new AvatarResource(new FileSystemResource(avatarPath), mediaType,
+                    attributes.size(), lastModified, eTag);
         } catch (IOException e) {
             logger.error("Blowout exception \"AvatarProcessingException\"");
             throw new AvatarProcessingException();
         }
     }
 
-    public List<Avatar> getAvatarPage(int pageNumber, int pageSize) {
+    private static String eTag(Avatar avatar) {
+        return avatar.getContentHash() != null
+                ? avatar.getContentHash()
+                : "a" + avatar.getId() + "v" + avatar.getVersion();
+    }
+
+    @Transactional(readOnly = true)
+    public List<AvatarInfo> getAvatarPage(int pageNumber, int pageSize) {
         PageRequest request = PageRequest.of(pageNumber - 1, pageSize);
-        return avatarRepository.findAll(request).getContent();
+        return avatarRepository.findAvatarInfos(request).getContent();
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<AvatarInfo> getAvatars(String cursor, Integer limit) {
+        return keysetPaginator.page(cursor, limit, avatarRepository::findAvatarInfosAfter, AvatarInfo::getId);
     }
 }
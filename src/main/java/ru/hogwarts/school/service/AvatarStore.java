@@ -0,0 +1,198 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import ru.hogwarts.school.dto.StoredAvatarFile;
+import ru.hogwarts.school.exception.AvatarTooLargeException;
+import ru.hogwarts.school.repository.AvatarJobRepository;
+import ru.hogwarts.school.repository.AvatarRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Service
+public class AvatarStore {
+    private static final Logger logger = LoggerFactory.getLogger(AvatarStore.class);
+    private static final int BUFFER_SIZE = 8192;
+    private static final Pattern STORED_FILE = Pattern.compile("([0-9a-f]{64})(-\\d+\\.png)?");
+    private static final String STAGING_DIR = "jobs";
+    private static final Pattern STAGED_FILE = Pattern.compile("job-.*\\.upload");
+    private static final Pattern TEMP_FILE = Pattern.compile("(upload|preview)-.*\\.tmp");
+    private final AvatarRepository avatarRepository;
+    private final AvatarJobRepository avatarJobRepository;
+    private final Path path;
+    private final DataSize maxSize;
+    private final Duration gracePeriod;
+
+    public AvatarStore(AvatarRepository avatarRepository,
+                       AvatarJobRepository avatarJobRepository,
+                       @Value("${applications.avatars-dir-name}") String avatarsDirName,
+                       @Value("${applications.avatars-max-size:5MB}") DataSize maxSize,
+                       @Value("${applications.avatars-gc-grace-period:PT1H}") Duration gracePeriod) {
+        this.avatarRepository = avatarRepository;
+        this.avatarJobRepository = avatarJobRepository;
+        path = Paths.get(avatarsDirName);
+        this.maxSize = maxSize;
+        this.gracePeriod = gracePeriod;
+    }
+
+    public StoredAvatarFile store(InputStream inputStream, long declaredSize) throws IOException {
+        if (declaredSize > maxSize.toBytes()) {
+            throw new AvatarTooLargeException(maxSize.toBytes());
+        }
+        Files.createDirectories(path);
+        MessageDigest digest = newDigest();
+        Path tempPath = Files.createTempFile(path, "upload-", ".tmp");
+        try {
+            long size = copy(new DigestInputStream(inputStream, digest), tempPath);
+            String contentHash = HexFormat.of().formatHex(digest.digest());
+            Path avatarPath = resolve(contentHash);
+            if (Files.exists(avatarPath)) {
+                logger.debug("Avatar {} is already stored, reusing it", contentHash);
+                Files.setLastModifiedTime(avatarPath, FileTime.from(Instant.now()));
+            } else {
+                Files.createDirectories(avatarPath.getParent());
+                Files.move(tempPath, avatarPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return new StoredAvatarFile(avatarPath, size, contentHash);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    public Path stage(InputStream inputStream, long declaredSize) throws IOException {
+        if (declaredSize > maxSize.toBytes()) {
+            throw new AvatarTooLargeException(maxSize.toBytes());
+        }
+        Path stagingPath = path.resolve(STAGING_DIR);
+        Files.createDirectories(stagingPath);
+        Path stagedPath = Files.createTempFile(stagingPath, "job-", ".upload");
+        try {
+            copy(inputStream, stagedPath);
+            return stagedPath;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(stagedPath);
+            throw e;
+        }
+    }
+
+    public void discard(Path stagedPath) {
+        try {
+            Files.deleteIfExists(stagedPath);
+        } catch (IOException e) {
+            logger.warn("Failed to delete staged avatar {}", stagedPath, e);
+        }
+    }
+
+    private long copy(InputStream inputStream, Path target) throws IOException {
+        long size = 0;
+        try (InputStream in = inputStream;
+             OutputStream out = Files.newOutputStream(target)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > maxSize.toBytes()) {
+                    throw new AvatarTooLargeException(maxSize.toBytes());
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return size;
+    }
+
+    public Path resolve(String contentHash) {
+        return path.resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4))
+                .resolve(contentHash);
+    }
+
+    public void release(String contentHash) {
+        if (contentHash == null || avatarRepository.countByContentHash(contentHash) > 0) {
+            return;
+        }
+        Path avatarPath = resolve(contentHash);
+        try (Stream<Path> files = Files.list(avatarPath.getParent())) {
+            for (Path file : files.filter(file -> file.getFileName().toString().startsWith(contentHash)).toList()) {
+                deleteIfExpired(file);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to release avatar {}", contentHash, e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${applications.avatars-gc-interval:PT1H}",
+            fixedDelayString = "${applications.avatars-gc-interval:PT1H}")
+    public void collectGarbage() {
+        if (!Files.isDirectory(path)) {
+            return;
+        }
+        logger.info("Was invoked method for \"collectGarbage\"");
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(path)) {
+            files = walk.filter(Files::isRegularFile).toList();
+        } catch (IOException e) {
+            logger.error("Failed to scan avatar store", e);
+            return;
+        }
+        int deleted = 0;
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            Matcher matcher = STORED_FILE.matcher(fileName);
+            boolean garbage;
+            if (matcher.matches()) {
+                garbage = avatarRepository.countByContentHash(matcher.group(1)) == 0;
+            } else if (STAGED_FILE.matcher(fileName).matches()) {
+                // Left behind when the job row was never committed or was removed before its upload
+                garbage = !avatarJobRepository.existsByStagedPath(file.toString());
+            } else {
+                garbage = TEMP_FILE.matcher(fileName).matches();
+            }
+            if (garbage && deleteIfExpired(file)) {
+                deleted++;
+            }
+        }
+        logger.info("Avatar store garbage collection removed {} files", deleted);
+    }
+
+    private boolean deleteIfExpired(Path file) {
+        try {
+            Instant lastModified = Files.getLastModifiedTime(file).toInstant();
+            if (lastModified.plus(gracePeriod).isAfter(Instant.now())) {
+                return false;
+            }
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete {}", file, e);
+            return false;
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
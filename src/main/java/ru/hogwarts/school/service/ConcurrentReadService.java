@@ -0,0 +1,154 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.dto.ConcurrentReadMode;
+import ru.hogwarts.school.dto.ConcurrentReadReport;
+import ru.hogwarts.school.dto.ThreadReadStatistics;
+import ru.hogwarts.school.logging.SampledLogger;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class ConcurrentReadService {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrentReadService.class);
+    private static final SampledLogger invocationLogger = SampledLogger.getLogger(ConcurrentReadService.class);
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private final StudentRepository studentRepository;
+    private final ThreadPoolTaskExecutor executor;
+
+    public ConcurrentReadService(StudentRepository studentRepository,
+                                 @Qualifier("concurrentReadExecutor") ThreadPoolTaskExecutor executor) {
+        this.studentRepository = studentRepository;
+        this.executor = executor;
+    }
+
+    public ConcurrentReadReport readNames(ConcurrentReadMode mode, Integer threads, int batchSize, boolean includeNames) {
+        invocationLogger.debug("Was invoked method for \"readNames\" in {} mode", mode);
+        int poolSize = executor.getMaxPoolSize();
+        int threadCount = threads == null ? poolSize : Math.max(1, Math.min(threads, poolSize));
+        int size = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        Long minId = studentRepository.findMinId();
+        Long maxId = studentRepository.findMaxId();
+        long start = System.nanoTime();
+        if (minId == null) {
+            return new ConcurrentReadReport(mode, threadCount, size, 0, System.nanoTime() - start, List.of(),
+                    includeNames ? List.of() : null);
+        }
+        ReadRun run = new ReadRun(mode, minId, maxId, size, includeNames);
+        List<CompletableFuture<ThreadReadStatistics>> futures = new ArrayList<>(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            futures.add(CompletableFuture.supplyAsync(run::readBatches, executor));
+        }
+        List<ThreadReadStatistics> statistics;
+        try {
+            statistics = futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            run.fail();
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        long totalNames = statistics.stream().mapToLong(ThreadReadStatistics::getNames).sum();
+        logger.debug("Read {} names with {} threads in {} ms", totalNames, threadCount, elapsed / 1_000_000);
+        return new ConcurrentReadReport(mode, threadCount, size, totalNames, elapsed, statistics,
+                includeNames ? new ArrayList<>(run.output) : null);
+    }
+
+    private class ReadRun {
+        private final ConcurrentReadMode mode;
+        private final long minId;
+        private final long batchCount;
+        private final int batchSize;
+        private final AtomicLong nextBatch = new AtomicLong();
+        // Only filled when the caller asked for the names, otherwise batches are just counted
+        private final Queue<String> output;
+        private final Lock lock = new ReentrantLock();
+        private final Condition turn = lock.newCondition();
+        private long nextToEmit;
+        private boolean failed;
+
+        private ReadRun(ConcurrentReadMode mode, long minId, long maxId, int batchSize, boolean includeNames) {
+            this.mode = mode;
+            this.minId = minId;
+            this.batchSize = batchSize;
+            this.output = includeNames ? new ConcurrentLinkedQueue<>() : null;
+            this.batchCount = (maxId - minId) / batchSize + 1;
+        }
+
+        private ThreadReadStatistics readBatches() {
+            int batches = 0;
+            long names = 0;
+            long readNanos = 0;
+            long waitNanos = 0;
+            try {
+                long batch;
+                while ((batch = nextBatch.getAndIncrement()) < batchCount) {
+                    long fromId = minId + batch * batchSize;
+                    long readStart = System.nanoTime();
+                    List<String> batchNames = studentRepository.findNamesByIdRange(fromId, fromId + batchSize);
+                    readNanos += System.nanoTime() - readStart;
+                    if (mode == ConcurrentReadMode.ORDERED) {
+                        waitNanos += emitInOrder(batch, batchNames);
+                    } else if (output != null) {
+                        output.addAll(batchNames);
+                    }
+                    batches++;
+                    names += batchNames.size();
+                }
+            } catch (RuntimeException e) {
+                fail();
+                throw e;
+            }
+            return new ThreadReadStatistics(Thread.currentThread().getName(), batches, names, readNanos, waitNanos);
+        }
+
+        private long emitInOrder(long batch, List<String> batchNames) {
+            long waitStart = System.nanoTime();
+            lock.lock();
+            try {
+                while (nextToEmit != batch) {
+                    if (failed) {
+                        throw new IllegalStateException("Concurrent read was aborted");
+                    }
+                    turn.await(1, TimeUnit.SECONDS);
+                }
+                long waited = System.nanoTime() - waitStart;
+                if (output != null) {
+                    output.addAll(batchNames);
+                }
+                nextToEmit++;
+                turn.signalAll();
+                return waited;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Concurrent read was interrupted", e);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void fail() {
+            lock.lock();
+            try {
+                failed = true;
+                turn.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -1,75 +1,139 @@
 package ru.hogwarts.school.service;
 
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.CursorPage;
+import ru.hogwarts.school.event.FacultiesRemovedEvent;
+import ru.hogwarts.school.event.StudentsBulkChangedEvent;
 import ru.hogwarts.school.exception.FacultyNotFoundException;
+import ru.hogwarts.school.exception.PreconditionFailedException;
+import ru.hogwarts.school.logging.SampledLogger;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.FacultyRepository;
 import ru.hogwarts.school.repository.StudentRepository;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @Service
 public class FacultyService {
-    private static final Logger logger = LoggerFactory.getLogger(FacultyService.class);
+    private static final SampledLogger invocationLogger = SampledLogger.getLogger(FacultyService.class);
 
     private final FacultyRepository facultyRepository;
     private final StudentRepository studentRepository;
+    private final KeysetPaginator keysetPaginator;
+    private final NdjsonExporter ndjsonExporter;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public FacultyService(FacultyRepository facultyRepository, StudentRepository studentRepository) {
+    public FacultyService(FacultyRepository facultyRepository, StudentRepository studentRepository,
+                          KeysetPaginator keysetPaginator, NdjsonExporter ndjsonExporter,
+                          ApplicationEventPublisher eventPublisher) {
         this.facultyRepository = facultyRepository;
         this.studentRepository = studentRepository;
+        this.keysetPaginator = keysetPaginator;
+        this.ndjsonExporter = ndjsonExporter;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional
     public Faculty create(Faculty faculty) {
         faculty.setId(null);
-        logger.info("Was invoked method for create faculty");
+        invocationLogger.debug("Was invoked method for create faculty");
         return facultyRepository.save(faculty);
     }
 
-    public void update(long id, Faculty faculty) {
-        logger.error("There is not faculty with id = " + id);
-        Faculty oldFaculty = facultyRepository.findById(id)
+    @Transactional
+    public void update(long id, Faculty faculty, Predicate<Faculty> precondition) {
+        invocationLogger.debug("Was invoked method for update faculty with id = {}", id);
+        Faculty oldFaculty = facultyRepository.readById(id)
                 .orElseThrow(() -> new FacultyNotFoundException(id));
+        if (!precondition.test(oldFaculty)) {
+            throw new PreconditionFailedException(id);
+        }
         oldFaculty.setName(faculty.getName());
         oldFaculty.setColor(faculty.getColor());
         facultyRepository.save(oldFaculty);
     }
 
+    @Transactional(readOnly = true)
     public Faculty get(long id) {
-        logger.error("There is not faculty with id = " + id);
+        invocationLogger.debug("Was invoked method for get faculty with id = {}", id);
         return facultyRepository.findById(id).orElseThrow(() -> new FacultyNotFoundException(id));
     }
 
+    @Transactional
     public Faculty remove(long id) {
-        logger.error("There is not faculty with id = " + id);
-        Faculty faculty = facultyRepository.findById(id)
+        invocationLogger.debug("Was invoked method for remove faculty with id = {}", id);
+        Faculty faculty = facultyRepository.readById(id)
                 .orElseThrow(() -> new FacultyNotFoundException(id));
         facultyRepository.delete(faculty);
         return faculty;
     }
 
-    public List<Faculty> filterByColor(String color) {
-        logger.info("Was invoke method for filter by color");
-        return facultyRepository.findAllByColor(color);
+    @Transactional
+    public int removeAll(Collection<Long> ids) {
+        invocationLogger.debug("Was invoked method for remove faculties by ids");
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int detached = studentRepository.detachFromFaculties(ids);
+        int removed = facultyRepository.deleteByIdIn(ids);
+        eventPublisher.publishEvent(new StudentsBulkChangedEvent(detached));
+        eventPublisher.publishEvent(new FacultiesRemovedEvent(ids));
+        return removed;
     }
 
+    @Transactional
+    public int moveStudents(long fromId, long toId) {
+        invocationLogger.debug("Was invoked method for move students between faculties");
+        Faculty toFaculty = facultyRepository.findById(toId)
+                .orElseThrow(() -> new FacultyNotFoundException(toId));
+        int moved = studentRepository.moveToFaculty(fromId, toFaculty);
+        eventPublisher.publishEvent(new StudentsBulkChangedEvent(moved));
+        return moved;
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Faculty> filterByColor(String color, String cursor, Integer limit) {
+        invocationLogger.debug("Was invoked method for filter by color");
+        return keysetPaginator.page(cursor, limit,
+                (afterId, pageLimit) -> facultyRepository.findAllByColorAndIdGreaterThanOrderById(color, afterId, pageLimit),
+                Faculty::getId);
+    }
+
+    @Transactional(readOnly = true)
     public List<Faculty> filterByNameOrColor(String nameOrColor) {
-        logger.info("Was invoke method for filter by name or color");
+        invocationLogger.debug("Was invoked method for filter by name or color");
         return facultyRepository.findAllByNameIgnoreCaseOrColorIgnoreCase(nameOrColor, nameOrColor);
     }
 
-    public List<Student> findStudentsByFacultyId(long id) {
-        logger.info("Was invoke method for get students by faculty id");
-        return studentRepository.findAllByFaculty_Id(id);
+    @Transactional(readOnly = true)
+    public CursorPage<Student> findStudentsByFacultyId(long id, String cursor, Integer limit) {
+        invocationLogger.debug("Was invoked method for get students by faculty id");
+        return keysetPaginator.page(cursor, limit,
+                (afterId, pageLimit) -> studentRepository.findAllByFaculty_IdAndIdGreaterThanOrderById(id, afterId, pageLimit),
+                Student::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportStudentsByFacultyId(long id, OutputStream outputStream) throws IOException {
+        invocationLogger.debug("Was invoked method for export students by faculty id");
+        try (Stream<Student> students = studentRepository.streamAllByFaculty_IdOrderById(id)) {
+            ndjsonExporter.export(students, outputStream);
+        }
     }
 
+    @Transactional(readOnly = true)
     public String findTheLongestFacultyName() {
-        logger.info("Was invoke method for find the longest faculty name");
+        invocationLogger.debug("Was invoked method for find the longest faculty name");
         return facultyRepository.findAll().stream()
                 .map(Faculty::getName)
                 .max(Comparator.comparingInt(String::length))
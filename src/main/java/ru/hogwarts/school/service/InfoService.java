@@ -1,33 +1,102 @@
 package ru.hogwarts.school.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StopWatch;
+import ru.hogwarts.school.dto.CacheStatistics;
+import ru.hogwarts.school.dto.SumResult;
+import ru.hogwarts.school.dto.SumStrategy;
+import ru.hogwarts.school.dto.SumTiming;
+import ru.hogwarts.school.exception.InvalidSumRequestException;
+import ru.hogwarts.school.logging.SampledLogger;
 
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 @Service
 public class InfoService {
     private static final Logger logger = LoggerFactory.getLogger(InfoService.class);
+    private static final SampledLogger invocationLogger = SampledLogger.getLogger(InfoService.class);
     @Value("${server.port}")
     private String port;
+    private final CacheManager cacheManager;
+    private final ForkJoinPool computePool;
+    private final long maxN;
+    private final long boxedMaxN;
+
+    public InfoService(CacheManager cacheManager,
+                       ForkJoinPool computePool,
+                       @Value("${applications.info.max-n:1000000000}") long maxN,
+                       @Value("${applications.info.boxed-max-n:1000000}") long boxedMaxN) {
+        this.cacheManager = cacheManager;
+        this.computePool = computePool;
+        this.maxN = maxN;
+        this.boxedMaxN = boxedMaxN;
+    }
 
     public String getPort() {
-        logger.info("Was invoked method for \"getPort\"");
+        invocationLogger.debug("Was invoked method for \"getPort\"");
         logger.debug("The port={} number was transmitted",port);
         return port;
     }
 
     public void step4() {
-        StopWatch stopWatch = new StopWatch();
-        stopWatch.start("Stream");
-        long sum = Stream.iterate(1L, a -> a +1)
-                .limit(1_000_000)
-                .reduce(0L, Long::sum);
-        stopWatch.stop();
-        logger.info(stopWatch.prettyPrint(TimeUnit.MILLISECONDS));
+        SumResult sumResult = sum(1_000_000, null);
+        sumResult.getTimings().forEach(timing ->
+                logger.info("{}: {} ms", timing.getStrategy(), timing.getDurationMillis()));
+    }
+
+    public SumResult sum(long n, SumStrategy strategy) {
+        invocationLogger.debug("Was invoked method for \"sum\"");
+        if (n < 1 || n > maxN) {
+            throw new InvalidSumRequestException(n, maxN);
+        }
+        if (strategy == SumStrategy.BOXED && n > boxedMaxN) {
+            throw new InvalidSumRequestException(n, boxedMaxN);
+        }
+        // BOXED allocates a Long per element, so the default run only includes it for small n
+        List<SumStrategy> strategies = strategy != null ? List.of(strategy) : Stream.of(SumStrategy.values())
+                .filter(current -> current != SumStrategy.BOXED || n <= boxedMaxN)
+                .toList();
+        List<SumTiming> timings = new ArrayList<>(strategies.size());
+        for (SumStrategy current : strategies) {
+            long start = System.nanoTime();
+            long result = compute(n, current);
+            timings.add(new SumTiming(current, result, System.nanoTime() - start));
+        }
+        return new SumResult(n, timings.get(0).getResult(), Runtime.getRuntime().availableProcessors(),
+                computePool.getParallelism(), timings);
+    }
+
+    private long compute(long n, SumStrategy strategy) {
+        return switch (strategy) {
+            case BOXED -> Stream.iterate(1L, a -> a + 1)
+                    .limit(n)
+                    .reduce(0L, Long::sum);
+            case PRIMITIVE -> LongStream.rangeClosed(1, n).sum();
+            case PARALLEL -> computePool.submit(() -> LongStream.rangeClosed(1, n).parallel().sum()).join();
+            case CLOSED_FORM -> n % 2 == 0 ? n / 2 * (n + 1) : (n + 1) / 2 * n;
+        };
+    }
+
+    public List<CacheStatistics> getCacheStatistics() {
+        invocationLogger.debug("Was invoked method for \"getCacheStatistics\"");
+        return cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(cache -> cache.getNativeCache() instanceof Cache<?, ?>)
+                .map(cache -> {
+                    Cache<?, ?> nativeCache = (Cache<?, ?>) cache.getNativeCache();
+                    CacheStats stats = nativeCache.stats();
+                    return new CacheStatistics(cache.getName(), nativeCache.estimatedSize(),
+                            stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate());
+                })
+                .toList();
     }
 }
@@ -0,0 +1,57 @@
+package ru.hogwarts.school.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.dto.CursorPage;
+import ru.hogwarts.school.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.ToLongFunction;
+
+@Service
+public class KeysetPaginator {
+    private static final String CURSOR_PREFIX = "id:";
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public KeysetPaginator(@Value("${applications.pagination.default-limit:100}") int defaultLimit,
+                           @Value("${applications.pagination.max-limit:1000}") int maxLimit) {
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    public <T> CursorPage<T> page(String cursor, Integer limit,
+                                  BiFunction<Long, Limit, List<T>> query, ToLongFunction<T> idExtractor) {
+        int pageSize = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+        List<T> rows = query.apply(decode(cursor), Limit.of(pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, pageSize);
+        return new CursorPage<>(content, encode(idExtractor.applyAsLong(content.get(pageSize - 1))));
+    }
+
+    private static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new InvalidCursorException(cursor);
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.event.FacultiesRemovedEvent;
+import ru.hogwarts.school.event.FacultyChangedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.event.StudentsBulkChangedEvent;
+import ru.hogwarts.school.logging.SampledLogger;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+public class SearchService {
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+    private static final SampledLogger invocationLogger = SampledLogger.getLogger(SearchService.class);
+    private final StudentRepository studentRepository;
+    private final FacultyRepository facultyRepository;
+    private final double similarityThreshold;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final TaskExecutor reloadExecutor;
+    private final AtomicBoolean studentReloadPending = new AtomicBoolean();
+    private final Object studentChangesMonitor = new Object();
+    private List<StudentChangedEvent> studentChangesDuringReload;
+    private final Object facultyChangesMonitor = new Object();
+    private List<FacultyChangedEvent> facultyChangesDuringReload;
+    private volatile TrigramIndex studentNames = new TrigramIndex(List.of());
+    private volatile TrigramIndex facultyNames = new TrigramIndex(List.of());
+    private volatile TrigramIndex facultyColors = new TrigramIndex(List.of());
+
+    public SearchService(StudentRepository studentRepository,
+                         FacultyRepository facultyRepository,
+                         @Value("${applications.search.similarity-threshold:0.3}") double similarityThreshold,
+                         @Value("${applications.pagination.default-limit:100}") int defaultLimit,
+                         @Value("${applications.pagination.max-limit:1000}") int maxLimit,
+                         @Qualifier("indexReloadExecutor") TaskExecutor reloadExecutor) {
+        this.studentRepository = studentRepository;
+        this.facultyRepository = facultyRepository;
+        this.similarityThreshold = similarityThreshold;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+        this.reloadExecutor = reloadExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        logger.info("Was invoked method for \"seed\" search indexes");
+        reloadStudents();
+        reloadFaculties();
+    }
+
+    @Scheduled(initialDelayString = "${applications.search.reconcile-interval:PT10M}",
+            fixedDelayString = "${applications.search.reconcile-interval:PT10M}")
+    public void reconcile() {
+        int sizeBefore = studentNames.size();
+        reloadStudents();
+        reloadFaculties();
+        int sizeAfter = studentNames.size();
+        if (sizeBefore != sizeAfter) {
+            logger.warn("Student search index drifted by {} students and was reconciled", sizeAfter - sizeBefore);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentsBulkChanged(StudentsBulkChangedEvent event) {
+        // Bulk writes that arrive while a rebuild is still queued are covered by that rebuild
+        if (studentReloadPending.compareAndSet(false, true)) {
+            reloadExecutor.execute(() -> {
+                studentReloadPending.set(false);
+                reloadStudents();
+            });
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFacultiesRemoved(FacultiesRemovedEvent event) {
+        for (Long facultyId : event.getFacultyIds()) {
+            onFacultyChanged(new FacultyChangedEvent(facultyId, null, null));
+        }
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        synchronized (studentChangesMonitor) {
+            apply(studentNames, event);
+            if (studentChangesDuringReload != null) {
+                studentChangesDuringReload.add(event);
+            }
+        }
+    }
+
+    private static void apply(TrigramIndex index, StudentChangedEvent event) {
+        if (event.getAfter() == null) {
+            index.remove(event.getStudentId());
+        } else {
+            index.put(event.getStudentId(), event.getAfter().getName());
+        }
+    }
+
+    @EventListener
+    public void onFacultyChanged(FacultyChangedEvent event) {
+        synchronized (facultyChangesMonitor) {
+            apply(facultyNames, facultyColors, event);
+            if (facultyChangesDuringReload != null) {
+                facultyChangesDuringReload.add(event);
+            }
+        }
+    }
+
+    private static void apply(TrigramIndex names, TrigramIndex colors, FacultyChangedEvent event) {
+        if (event.getAfter() == null) {
+            names.remove(event.getFacultyId());
+            colors.remove(event.getFacultyId());
+        } else {
+            names.put(event.getFacultyId(), event.getAfter().getName());
+            colors.put(event.getFacultyId(), event.getAfter().getColor());
+        }
+    }
+
+    public List<SearchHit> searchStudents(String query, Integer page, Integer size) {
+        invocationLogger.debug("Was invoked method for search students");
+        int pageSize = pageSize(size);
+        int offset = offset(page, pageSize);
+        return page(studentNames.search(query, similarityThreshold, offset + pageSize), offset, pageSize);
+    }
+
+    public List<SearchHit> searchFaculties(String query, Integer page, Integer size) {
+        invocationLogger.debug("Was invoked method for search faculties");
+        int pageSize = pageSize(size);
+        int offset = offset(page, pageSize);
+        Map<Long, SearchHit> best = new LinkedHashMap<>();
+        List<SearchHit> candidates = new ArrayList<>(facultyNames.search(query, similarityThreshold, offset + pageSize));
+        candidates.addAll(facultyColors.search(query, similarityThreshold, offset + pageSize));
+        for (SearchHit hit : candidates) {
+            best.merge(hit.getId(), hit, (left, right) -> left.getScore() >= right.getScore() ? left : right);
+        }
+        List<SearchHit> hits = new ArrayList<>(best.values());
+        hits.sort(Comparator.comparingDouble(SearchHit::getScore).reversed().thenComparingLong(SearchHit::getId));
+        return page(hits, offset, pageSize);
+    }
+
+    private int pageSize(Integer size) {
+        return size == null || size <= 0 ? defaultLimit : Math.min(size, maxLimit);
+    }
+
+    private static int offset(Integer page, int pageSize) {
+        return page == null || page <= 1 ? 0 : (int) Math.min((long) (page - 1) * pageSize, Integer.MAX_VALUE - pageSize);
+    }
+
+    private static List<SearchHit> page(List<SearchHit> hits, int offset, int pageSize) {
+        if (offset >= hits.size()) {
+            return List.of();
+        }
+        return hits.subList(offset, Math.min(hits.size(), offset + pageSize));
+    }
+
+    private synchronized void reloadStudents() {
+        synchronized (studentChangesMonitor) {
+            studentChangesDuringReload = new ArrayList<>();
+        }
+        TrigramIndex index;
+        try {
+            index = new TrigramIndex(studentRepository.findNameSearchDocuments());
+        } catch (RuntimeException e) {
+            synchronized (studentChangesMonitor) {
+                studentChangesDuringReload = null;
+            }
+            throw e;
+        }
+        // Changes committed while the snapshot was read are replayed, put and remove are idempotent
+        synchronized (studentChangesMonitor) {
+            studentChangesDuringReload.forEach(change -> apply(index, change));
+            studentChangesDuringReload = null;
+            studentNames = index;
+        }
+    }
+
+    private synchronized void reloadFaculties() {
+        synchronized (facultyChangesMonitor) {
+            facultyChangesDuringReload = new ArrayList<>();
+        }
+        TrigramIndex names;
+        TrigramIndex colors;
+        try {
+            names = new TrigramIndex(facultyRepository.findNameSearchDocuments());
+            colors = new TrigramIndex(facultyRepository.findColorSearchDocuments());
+        } catch (RuntimeException e) {
+            synchronized (facultyChangesMonitor) {
+                facultyChangesDuringReload = null;
+            }
+            throw e;
+        }
+        synchronized (facultyChangesMonitor) {
+            facultyChangesDuringReload.forEach(change -> apply(names, colors, change));
+            facultyChangesDuringReload = null;
+            facultyNames = names;
+            facultyColors = colors;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.dto.StudentImportRow;
+import ru.hogwarts.school.exception.ImportFormatException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@Service
+public class StudentImportParser {
+    private final ObjectMapper objectMapper;
+
+    public StudentImportParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public ImportRows parseJson(InputStream inputStream) {
+        JsonParser parser;
+        try {
+            parser = objectMapper.getFactory().createParser(inputStream);
+        } catch (IOException e) {
+            throw new ImportFormatException("Не удалось прочитать JSON", e);
+        }
+        JsonToken first;
+        try {
+            first = parser.nextToken();
+        } catch (IOException e) {
+            closeQuietly(parser);
+            throw new ImportFormatException("Не удалось прочитать JSON", e);
+        }
+        if (first != JsonToken.START_ARRAY) {
+            closeQuietly(parser);
+            throw new ImportFormatException("Ожидался JSON-массив студентов", null);
+        }
+        return new ImportRows(parser) {
+            private long row;
+
+            @Override
+            protected StudentImportRow readNext() throws IOException {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.END_ARRAY) {
+                    if (parser.nextToken() != null) {
+                        throw new ImportFormatException("Лишние данные после JSON-массива студентов", null);
+                    }
+                    return null;
+                }
+                if (token == null) {
+                    throw new ImportFormatException("JSON-массив студентов не завершён", null);
+                }
+                row++;
+                if (token != JsonToken.START_OBJECT) {
+                    String value = parser.getText();
+                    parser.skipChildren();
+                    return StudentImportRow.invalid(row, "Ожидался объект студента, получено: " + value);
+                }
+                JsonNode node = parser.readValueAsTree();
+                JsonNode age = node.path("age");
+                JsonNode facultyId = node.hasNonNull("facultyId") ? node.get("facultyId") : node.path("faculty").path("id");
+                if (!age.isMissingNode() && !age.isNull() && !age.canConvertToInt()) {
+                    return StudentImportRow.invalid(row, "Некорректный возраст: " + age.asText());
+                }
+                if (!facultyId.isMissingNode() && !facultyId.isNull() && !facultyId.canConvertToLong()) {
+                    return StudentImportRow.invalid(row, "Некорректный id факультета: " + facultyId.asText());
+                }
+                return new StudentImportRow(row,
+                        node.path("name").isTextual() ? node.get("name").asText() : null,
+                        age.isNumber() ? age.asInt() : null,
+                        facultyId.isNumber() ? facultyId.asLong() : null);
+            }
+        };
+    }
+
+    public ImportRows parseCsv(InputStream inputStream) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        return new ImportRows(reader) {
+            private long row;
+            private boolean headerChecked;
+
+            @Override
+            protected StudentImportRow readNext() throws IOException {
+                String line;
+                do {
+                    line = reader.readLine();
+                    if (line == null) {
+                        return null;
+                    }
+                } while (line.isBlank());
+                List<String> fields = splitCsvLine(line);
+                if (!headerChecked) {
+                    headerChecked = true;
+                    if (!fields.isEmpty() && "name".equalsIgnoreCase(fields.get(0).trim())) {
+                        return readNext();
+                    }
+                }
+                row++;
+                if (fields.size() < 2 || fields.size() > 3) {
+                    return StudentImportRow.invalid(row, "Ожидались поля name,age[,facultyId]");
+                }
+                try {
+                    Integer age = Integer.valueOf(fields.get(1).trim());
+                    Long facultyId = fields.size() == 3 && !fields.get(2).isBlank()
+                            ? Long.valueOf(fields.get(2).trim())
+                            : null;
+                    return new StudentImportRow(row, fields.get(0), age, facultyId);
+                } catch (NumberFormatException e) {
+                    return StudentImportRow.invalid(row, "Некорректное число: " + e.getMessage());
+                }
+            }
+        };
+    }
+
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // Nothing left to read from the request body
+        }
+    }
+
+    public abstract static class ImportRows implements Iterator<StudentImportRow>, AutoCloseable {
+        private final Closeable source;
+        private StudentImportRow next;
+        private boolean finished;
+
+        private ImportRows(Closeable source) {
+            this.source = source;
+        }
+
+        protected abstract StudentImportRow readNext() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !finished) {
+                try {
+                    next = readNext();
+                } catch (UncheckedIOException | IOException e) {
+                    throw new ImportFormatException("Не удалось прочитать строку импорта", e);
+                }
+                finished = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public StudentImportRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            StudentImportRow row = next;
+            next = null;
+            return row;
+        }
+
+        @Override
+        public void close() {
+            closeQuietly(source);
+        }
+    }
+}
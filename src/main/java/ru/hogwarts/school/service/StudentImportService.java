@@ -0,0 +1,199 @@
+package ru.hogwarts.school.service;
+
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.dto.ImportError;
+import ru.hogwarts.school.dto.ImportResult;
+import ru.hogwarts.school.dto.StudentImportRow;
+import ru.hogwarts.school.exception.ImportFormatException;
+import ru.hogwarts.school.logging.SampledLogger;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class StudentImportService {
+    private static final Logger logger = LoggerFactory.getLogger(StudentImportService.class);
+    private static final SampledLogger invocationLogger = SampledLogger.getLogger(StudentImportService.class);
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private final StudentRepository studentRepository;
+    private final FacultyRepository facultyRepository;
+    private final StudentImportParser studentImportParser;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public StudentImportService(StudentRepository studentRepository,
+                                FacultyRepository facultyRepository,
+                                StudentImportParser studentImportParser,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${applications.import.batch-size:500}") int batchSize) {
+        this.studentRepository = studentRepository;
+        this.facultyRepository = facultyRepository;
+        this.studentImportParser = studentImportParser;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public ImportResult importJson(InputStream inputStream) {
+        invocationLogger.debug("Was invoked method for \"importJson\"");
+        return importRows(studentImportParser.parseJson(inputStream));
+    }
+
+    public ImportResult importCsv(InputStream inputStream) {
+        invocationLogger.debug("Was invoked method for \"importCsv\"");
+        return importRows(studentImportParser.parseCsv(inputStream));
+    }
+
+    private ImportResult importRows(StudentImportParser.ImportRows rows) {
+        ImportProgress progress = new ImportProgress();
+        Map<Long, Faculty> faculties = new HashMap<>();
+        Set<Long> missingFaculties = new HashSet<>();
+        List<StudentImportRow> chunk = new ArrayList<>(batchSize);
+        long lastRow = 0;
+        ImportFormatException stopped = null;
+        try (rows) {
+            while (rows.hasNext()) {
+                StudentImportRow row = rows.next();
+                lastRow = row.getRow();
+                chunk.add(row);
+                if (chunk.size() == batchSize) {
+                    importChunk(chunk, faculties, missingFaculties, progress);
+                    chunk.clear();
+                }
+            }
+        } catch (ImportFormatException e) {
+            stopped = e;
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, faculties, missingFaculties, progress);
+        }
+        if (stopped != null) {
+            // Earlier chunks are already committed, so the client gets what was imported and where reading stopped
+            logger.warn("Import stopped after row {}: {}", lastRow, stopped.getMessage());
+            progress.abort(lastRow + 1, "Импорт прерван: " + stopped.getMessage());
+        }
+        logger.info("Imported {} students, {} rows failed", progress.imported, progress.failed);
+        return new ImportResult(progress.imported, progress.failed, progress.errors);
+    }
+
+    private void importChunk(List<StudentImportRow> chunk, Map<Long, Faculty> faculties,
+                             Set<Long> missingFaculties, ImportProgress progress) {
+        resolveFaculties(chunk, faculties, missingFaculties);
+        List<StudentImportRow> validRows = new ArrayList<>(chunk.size());
+        List<Student> students = new ArrayList<>(chunk.size());
+        for (StudentImportRow row : chunk) {
+            String error = validate(row, missingFaculties);
+            if (error != null) {
+                progress.fail(row.getRow(), error);
+                continue;
+            }
+            validRows.add(row);
+            students.add(toStudent(row, faculties));
+        }
+        if (students.isEmpty()) {
+            return;
+        }
+        try {
+            saveInTransaction(students);
+            progress.imported += students.size();
+        } catch (RuntimeException e) {
+            logger.warn("Batch insert of {} students failed, retrying row by row", students.size(), e);
+            for (StudentImportRow row : validRows) {
+                try {
+                    saveInTransaction(List.of(toStudent(row, faculties)));
+                    progress.imported++;
+                } catch (RuntimeException rowException) {
+                    progress.fail(row.getRow(), "Не удалось сохранить студента: " + rowException.getMessage());
+                }
+            }
+        }
+    }
+
+    private void saveInTransaction(List<Student> students) {
+        transactionTemplate.executeWithoutResult(status -> {
+            studentRepository.saveAll(students);
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private void resolveFaculties(List<StudentImportRow> chunk, Map<Long, Faculty> faculties,
+                                  Set<Long> missingFaculties) {
+        Set<Long> unknownIds = new HashSet<>();
+        for (StudentImportRow row : chunk) {
+            Long facultyId = row.getFacultyId();
+            if (facultyId != null && !faculties.containsKey(facultyId) && !missingFaculties.contains(facultyId)) {
+                unknownIds.add(facultyId);
+            }
+        }
+        if (unknownIds.isEmpty()) {
+            return;
+        }
+        for (Faculty faculty : facultyRepository.findAllById(unknownIds)) {
+            faculties.put(faculty.getId(), faculty);
+            unknownIds.remove(faculty.getId());
+        }
+        missingFaculties.addAll(unknownIds);
+    }
+
+    private static String validate(StudentImportRow row, Set<Long> missingFaculties) {
+        if (row.getError() != null) {
+            return row.getError();
+        }
+        if (row.getName() == null || row.getName().isBlank()) {
+            return "Не указано имя студента";
+        }
+        if (row.getAge() == null || row.getAge() < 0) {
+            return "Некорректный возраст студента";
+        }
+        if (row.getFacultyId() != null && missingFaculties.contains(row.getFacultyId())) {
+            return "Факультет с id = " + row.getFacultyId() + " не найден";
+        }
+        return null;
+    }
+
+    private static Student toStudent(StudentImportRow row, Map<Long, Faculty> faculties) {
+        Student student = new Student();
+        student.setName(row.getName());
+        student.setAge(row.getAge());
+        if (row.getFacultyId() != null) {
+            student.setFaculty(faculties.get(row.getFacultyId()));
+        }
+        return student;
+    }
+
+    private static class ImportProgress {
+        private long imported;
+        private long failed;
+        private final List<ImportError> errors = new ArrayList<>();
+
+        private void fail(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportError(row, message));
+            }
+        }
+
+        private void abort(long row, String message) {
+            failed++;
+            errors.add(new ImportError(row, message));
+        }
+    }
+}
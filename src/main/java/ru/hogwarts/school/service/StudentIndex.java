@@ -0,0 +1,307 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.dto.StudentIndexEntry;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.event.StudentState;
+import ru.hogwarts.school.event.StudentsBulkChangedEvent;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+@Service
+@ConditionalOnProperty(name = "applications.student-index.enabled", havingValue = "true")
+public class StudentIndex {
+    private static final Logger logger = LoggerFactory.getLogger(StudentIndex.class);
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor reloadExecutor;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean reloadPending = new AtomicBoolean();
+    private final AtomicLong bulkChanges = new AtomicLong();
+    private TreeMap<Integer, BitSet> byAge = new TreeMap<>();
+    private Map<Long, BitSet> byFaculty = new HashMap<>();
+    private List<StudentChangedEvent> changesDuringReload;
+    private long size;
+    private volatile boolean ready;
+
+    public StudentIndex(StudentRepository studentRepository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Qualifier("indexReloadExecutor") TaskExecutor reloadExecutor) {
+        this.studentRepository = studentRepository;
+        this.reloadExecutor = reloadExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        Gauge.builder("student.index.size", this, StudentIndex::size)
+                .description("Students held by the in-memory age/faculty index")
+                .register(meterRegistry);
+        Gauge.builder("student.index.bytes.per.student", this, StudentIndex::bytesPerStudent)
+                .description("Bitmap bytes used by the in-memory age/faculty index per indexed student")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        logger.info("Was invoked method for \"seed\" student index");
+        reload();
+    }
+
+    @Scheduled(initialDelayString = "${applications.student-index.reconcile-interval:PT5M}",
+            fixedDelayString = "${applications.student-index.reconcile-interval:PT5M}")
+    public void reconcile() {
+        long sizeBefore = size();
+        reload();
+        long sizeAfter = size();
+        if (sizeBefore != sizeAfter) {
+            logger.warn("Student index drifted by {} students and was reconciled", sizeAfter - sizeBefore);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentsBulkChanged(StudentsBulkChangedEvent event) {
+        // Callers fall back to SQL until the rebuild catches up with the bulk write
+        bulkChanges.incrementAndGet();
+        ready = false;
+        if (reloadPending.compareAndSet(false, true)) {
+            reloadExecutor.execute(() -> {
+                reloadPending.set(false);
+                reload();
+            });
+        }
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        long id = event.getStudentId();
+        if (id > Integer.MAX_VALUE) {
+            ready = false;
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            apply(event);
+            if (changesDuringReload != null) {
+                changesDuringReload.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(StudentChangedEvent event) {
+        if (event.getStudentId() > Integer.MAX_VALUE) {
+            return;
+        }
+        remove((int) event.getStudentId(), event.getBefore());
+        add((int) event.getStudentId(), event.getAfter());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double bytesPerStudent() {
+        lock.readLock().lock();
+        try {
+            if (size == 0) {
+                return 0;
+            }
+            long bits = 0;
+            for (BitSet bitSet : byAge.values()) {
+                bits += bitSet.size();
+            }
+            for (BitSet bitSet : byFaculty.values()) {
+                bits += bitSet.size();
+            }
+            return bits / 8.0 / size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long count(int minAge, int maxAge, Long facultyId) {
+        lock.readLock().lock();
+        try {
+            if (facultyId != null || minAge > maxAge) {
+                return matches(minAge, maxAge, facultyId).cardinality();
+            }
+            long count = 0;
+            for (BitSet ages : byAge.subMap(minAge, true, maxAge, true).values()) {
+                count += ages.cardinality();
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] findIds(int minAge, int maxAge, Long facultyId, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = matches(minAge, maxAge, facultyId);
+            long[] ids = new long[limit];
+            int found = 0;
+            int from = (int) Math.min(Math.max(afterId + 1, 0), Integer.MAX_VALUE);
+            for (int id = matches.nextSetBit(from); id >= 0 && found < limit; id = matches.nextSetBit(id + 1)) {
+                ids[found++] = id;
+            }
+            return found == limit ? ids : Arrays.copyOf(ids, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet matches(int minAge, int maxAge, Long facultyId) {
+        BitSet matches = new BitSet();
+        if (minAge > maxAge) {
+            return matches;
+        }
+        for (BitSet ages : byAge.subMap(minAge, true, maxAge, true).values()) {
+            matches.or(ages);
+        }
+        if (facultyId != null) {
+            BitSet faculty = byFaculty.get(facultyId);
+            if (faculty == null) {
+                return new BitSet();
+            }
+            matches.and(faculty);
+        }
+        return matches;
+    }
+
+    private synchronized void reload() {
+        long bulkChangesBefore = bulkChanges.get();
+        lock.writeLock().lock();
+        try {
+            changesDuringReload = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        TreeMap<Integer, BitSet> newByAge = new TreeMap<>();
+        Map<Long, BitSet> newByFaculty = new HashMap<>();
+        long[] newSize = new long[1];
+        boolean fits;
+        try {
+            fits = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                try (Stream<StudentIndexEntry> entries = studentRepository.streamIndexEntries()) {
+                    return entries.allMatch(entry -> {
+                        if (entry.getId() > Integer.MAX_VALUE) {
+                            return false;
+                        }
+                        int id = (int) entry.getId();
+                        newByAge.computeIfAbsent(entry.getAge(), age -> new BitSet()).set(id);
+                        if (entry.getFacultyId() != null) {
+                            newByFaculty.computeIfAbsent(entry.getFacultyId(), facultyId -> new BitSet()).set(id);
+                        }
+                        newSize[0]++;
+                        return true;
+                    });
+                }
+            }));
+        } catch (RuntimeException e) {
+            stopRecordingChanges();
+            throw e;
+        }
+        if (!fits) {
+            logger.warn("Student ids exceed the int range, the in-memory student index is disabled");
+            stopRecordingChanges();
+            ready = false;
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            byAge = newByAge;
+            byFaculty = newByFaculty;
+            size = newSize[0];
+            // Changes committed while the snapshot was read are replayed, add and remove are idempotent
+            changesDuringReload.forEach(this::apply);
+            changesDuringReload = null;
+            ready = bulkChanges.get() == bulkChangesBefore;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Student index loaded {} students using {} bytes per student",
+                newSize[0], String.format("%.2f", bytesPerStudent()));
+    }
+
+    private void stopRecordingChanges() {
+        lock.writeLock().lock();
+        try {
+            changesDuringReload = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(int id, StudentState state) {
+        if (state == null) {
+            return;
+        }
+        BitSet ages = byAge.computeIfAbsent(state.getAge(), age -> new BitSet());
+        if (!ages.get(id)) {
+            ages.set(id);
+            size++;
+        }
+        if (state.getFacultyId() != null) {
+            byFaculty.computeIfAbsent(state.getFacultyId(), facultyId -> new BitSet()).set(id);
+        }
+    }
+
+    private void remove(int id, StudentState state) {
+        if (state == null) {
+            return;
+        }
+        BitSet ages = byAge.get(state.getAge());
+        if (ages != null && ages.get(id)) {
+            ages.clear(id);
+            size--;
+            if (ages.isEmpty()) {
+                byAge.remove(state.getAge());
+            }
+        }
+        if (state.getFacultyId() != null) {
+            BitSet faculty = byFaculty.get(state.getFacultyId());
+            if (faculty != null) {
+                faculty.clear(id);
+                if (faculty.isEmpty()) {
+                    byFaculty.remove(state.getFacultyId());
+                }
+            }
+        }
+    }
+}
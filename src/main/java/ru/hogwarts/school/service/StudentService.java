@@ -1,30 +1,63 @@
 package ru.hogwarts.school.service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.CursorPage;
+import ru.hogwarts.school.dto.StudentStatistics;
+import ru.hogwarts.school.event.StudentsBulkChangedEvent;
 import ru.hogwarts.school.exception.FacultyNotFoundException;
+import ru.hogwarts.school.exception.PreconditionFailedException;
 import ru.hogwarts.school.exception.StudentNotFoundException;
+import ru.hogwarts.school.logging.SampledLogger;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarDataRepository;
+import ru.hogwarts.school.repository.AvatarRepository;
 import ru.hogwarts.school.repository.FacultyRepository;
 import ru.hogwarts.school.repository.StudentRepository;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @Service
 public class StudentService {
 
-    private static final Logger logger = LoggerFactory.getLogger(StudentService.class);
+    private static final SampledLogger invocationLogger = SampledLogger.getLogger(StudentService.class);
     private final StudentRepository studentRepository;
     private final FacultyRepository facultyRepository;
-
-    public StudentService(StudentRepository studentRepository, FacultyRepository facultyRepository) {
+    private final StudentStatisticsService studentStatisticsService;
+    private final KeysetPaginator keysetPaginator;
+    private final NdjsonExporter ndjsonExporter;
+    private final AvatarRepository avatarRepository;
+    private final AvatarDataRepository avatarDataRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Optional<StudentIndex> studentIndex;
+
+    public StudentService(StudentRepository studentRepository, FacultyRepository facultyRepository,
+                          StudentStatisticsService studentStatisticsService, KeysetPaginator keysetPaginator,
+                          NdjsonExporter ndjsonExporter, AvatarRepository avatarRepository,
+                          AvatarDataRepository avatarDataRepository, ApplicationEventPublisher eventPublisher,
+                          Optional<StudentIndex> studentIndex) {
         this.studentRepository = studentRepository;
         this.facultyRepository = facultyRepository;
+        this.studentStatisticsService = studentStatisticsService;
+        this.keysetPaginator = keysetPaginator;
+        this.ndjsonExporter = ndjsonExporter;
+        this.avatarRepository = avatarRepository;
+        this.avatarDataRepository = avatarDataRepository;
+        this.eventPublisher = eventPublisher;
+        this.studentIndex = studentIndex;
     }
 
+    @Transactional
     public Student create(Student student) {
         Faculty faculty = null;
         if (student.getFaculty() != null && student.getFaculty().getId() != null) {
@@ -33,14 +66,18 @@ public class StudentService {
         }
         student.setFaculty(faculty);
         student.setId(null);
-        logger.info("Was invoked method for create student");
+        invocationLogger.debug("Was invoked method for create student");
         return studentRepository.save(student);
     }
 
-    public void update(long id, Student student) {
-        logger.error("There is not student with id = " + id);
-        Student oldStudent = studentRepository.findById(id)
+    @Transactional
+    public void update(long id, Student student, Predicate<Student> precondition) {
+        invocationLogger.debug("Was invoked method for update student with id = {}", id);
+        Student oldStudent = studentRepository.readById(id)
                 .orElseThrow(() -> new StudentNotFoundException(id));
+        if (!precondition.test(oldStudent)) {
+            throw new PreconditionFailedException(id);
+        }
         Faculty faculty = null;
         if (student.getFaculty() != null && student.getFaculty().getId() != null) {
             faculty = facultyRepository.findById(student.getFaculty().getId())
@@ -52,62 +89,163 @@ public class StudentService {
         studentRepository.save(oldStudent);
     }
 
+    @Transactional(readOnly = true)
     public Student get(long id) {
-        logger.error("There is not student with id = " + id);
+        invocationLogger.debug("Was invoked method for get student with id = {}", id);
         return studentRepository.findById(id).orElseThrow(() -> new StudentNotFoundException(id));
     }
 
+    @Transactional
     public Student remove(long id) {
-        logger.error("There is not student with id = " + id);
-        Student student = studentRepository.findById(id)
+        invocationLogger.debug("Was invoked method for remove student with id = {}", id);
+        Student student = studentRepository.readById(id)
                 .orElseThrow(() -> new StudentNotFoundException(id));
         studentRepository.delete(student);
         return student;
     }
 
-    public List<Student> filterByAge(int age) {
-        logger.info("Was invoke method for filter students by age");
-        return studentRepository.findAllByAge(age);
+    @Transactional
+    public int removeAll(Collection<Long> ids) {
+        invocationLogger.debug("Was invoked method for remove students by ids");
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        avatarDataRepository.deleteByStudentIdIn(ids);
+        avatarRepository.deleteByStudentIdIn(ids);
+        int removed = studentRepository.deleteByIdIn(ids);
+        eventPublisher.publishEvent(new StudentsBulkChangedEvent(removed));
+        return removed;
+    }
+
+    @Transactional
+    public int removeByRangeAge(int minAge, int maxAge) {
+        invocationLogger.debug("Was invoked method for remove students by range age");
+        avatarDataRepository.deleteByStudentAgeBetween(minAge, maxAge);
+        avatarRepository.deleteByStudentAgeBetween(minAge, maxAge);
+        int removed = studentRepository.deleteByAgeBetween(minAge, maxAge);
+        eventPublisher.publishEvent(new StudentsBulkChangedEvent(removed));
+        return removed;
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Student> filterByAge(int age, String cursor, Integer limit) {
+        invocationLogger.debug("Was invoked method for filter students by age");
+        Optional<StudentIndex> index = readyIndex();
+        if (index.isPresent()) {
+            return filterByIndex(index.get(), age, age, cursor, limit);
+        }
+        return keysetPaginator.page(cursor, limit,
+                (afterId, pageLimit) -> studentRepository.findAllByAgeAndIdGreaterThanOrderById(age, afterId, pageLimit),
+                Student::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Student> filterByRangeAge(int minAge, int maxAge, String cursor, Integer limit) {
+        invocationLogger.debug("Was invoked method for filter students by range age");
+        Optional<StudentIndex> index = readyIndex();
+        if (index.isPresent()) {
+            return filterByIndex(index.get(), minAge, maxAge, cursor, limit);
+        }
+        return keysetPaginator.page(cursor, limit,
+                (afterId, pageLimit) -> studentRepository.findAllByAgeBetweenAndIdGreaterThanOrderById(minAge, maxAge, afterId, pageLimit),
+                Student::getId);
     }
 
-    public List<Student> filterByRangeAge(int minAge, int maxAge) {
-        logger.info("Was invoke method for filter students by range age");
-        return studentRepository.findAllByAgeBetween(minAge, maxAge);
+    private CursorPage<Student> filterByIndex(StudentIndex index, int minAge, int maxAge, String cursor, Integer limit) {
+        return keysetPaginator.page(cursor, limit,
+                (afterId, pageLimit) -> findByIndex(index, minAge, maxAge, afterId, pageLimit.max()),
+                Student::getId);
+    }
+
+    // The index may lag behind a concurrent write, so the age is checked again in SQL and stale ids are
+    // replaced by the next ones from the index until the page is full or the index is exhausted
+    private List<Student> findByIndex(StudentIndex index, int minAge, int maxAge, long afterId, int limit) {
+        List<Student> students = new ArrayList<>(limit);
+        long fromId = afterId;
+        while (students.size() < limit) {
+            int wanted = limit - students.size();
+            long[] ids = index.findIds(minAge, maxAge, null, fromId, wanted);
+            if (ids.length == 0) {
+                break;
+            }
+            students.addAll(studentRepository.findAllByIdInAndAgeBetweenOrderById(
+                    Arrays.stream(ids).boxed().toList(), minAge, maxAge));
+            if (ids.length < wanted) {
+                break;
+            }
+            fromId = ids[ids.length - 1];
+        }
+        return students;
     }
 
+    private Optional<StudentIndex> readyIndex() {
+        return studentIndex.filter(StudentIndex::isReady);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportByAge(int age, OutputStream outputStream) throws IOException {
+        invocationLogger.debug("Was invoked method for export students by age");
+        try (Stream<Student> students = studentRepository.streamAllByAgeOrderById(age)) {
+            ndjsonExporter.export(students, outputStream);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportByRangeAge(int minAge, int maxAge, OutputStream outputStream) throws IOException {
+        invocationLogger.debug("Was invoked method for export students by range age");
+        try (Stream<Student> students = studentRepository.streamAllByAgeBetweenOrderById(minAge, maxAge)) {
+            ndjsonExporter.export(students, outputStream);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public Faculty findStudentsFaculty(long id) {
-        logger.debug("Was invoke method for find students by faculty");
-        logger.debug("Students faculty is {}", id);
+        invocationLogger.debug("Was invoked method for find students by faculty");
         return get(id).getFaculty();
     }
 
     public long countStudents() {
-        logger.info("Was invoke method for count students");
-        return studentRepository.countStudents();
+        invocationLogger.debug("Was invoked method for count students");
+        return studentStatisticsService.count();
     }
 
 
+    @Transactional(readOnly = true)
+    public long countStudents(int minAge, int maxAge, Long facultyId) {
+        invocationLogger.debug("Was invoked method for count students by range age");
+        Optional<StudentIndex> index = readyIndex();
+        if (index.isPresent()) {
+            return index.get().count(minAge, maxAge, facultyId);
+        }
+        return facultyId == null
+                ? studentRepository.countByAgeBetween(minAge, maxAge)
+                : studentRepository.countByAgeBetweenAndFaculty_Id(minAge, maxAge, facultyId);
+    }
+
     public double averageAge() {
-        logger.info("Was invoke method for get average age");
-        return studentRepository.findAll().stream()
-                .mapToInt(Student::getAge)
-                .summaryStatistics()
-                .getAverage();
+        invocationLogger.debug("Was invoked method for get average age");
+        return studentStatisticsService.averageAge();
     }
 
 
+    public StudentStatistics getStatistics() {
+        invocationLogger.debug("Was invoked method for get student statistics");
+        return studentStatisticsService.getStatistics();
+    }
+
+    @Transactional(readOnly = true)
     public List<Student> getLastFiveStudents() {
-        logger.info("Was invoke method for get last five students");
+        invocationLogger.debug("Was invoked method for get last five students");
         return studentRepository.getLastFiveStudents();
     }
 
+    @Transactional(readOnly = true)
     public List<String> getNameOfStudentsWhichStartsWith(char startWith) {
-        logger.info("Was invoke method for get name of students which starts with char");
-        return studentRepository.findAll().stream()
-                .map(Student::getName)
-                .map(String::toUpperCase)
-                .filter(name -> name.startsWith(Character.toString(startWith).toUpperCase()))
-                .sorted()
-                .collect(Collectors.toList());
+        invocationLogger.debug("Was invoked method for get name of students which starts with char");
+        String prefix = Character.toString(startWith).toUpperCase()
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return studentRepository.findUpperCaseNamesLike(prefix + "%");
     }
 }
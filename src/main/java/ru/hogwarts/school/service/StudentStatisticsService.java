@@ -0,0 +1,286 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.dto.AgeGroup;
+import ru.hogwarts.school.dto.FacultyStatistics;
+import ru.hogwarts.school.dto.StudentIndexEntry;
+import ru.hogwarts.school.dto.StudentStatistics;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.event.StudentState;
+import ru.hogwarts.school.event.StudentsBulkChangedEvent;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+public class StudentStatisticsService {
+    private static final Logger logger = LoggerFactory.getLogger(StudentStatisticsService.class);
+    private static final int CHANGED_IDS_BATCH_SIZE = 1000;
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor reloadExecutor;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean reloadPending = new AtomicBoolean();
+    private final AtomicLong bulkChanges = new AtomicLong();
+    private AgeCounter total = new AgeCounter();
+    private Map<Long, AgeCounter> byFaculty = new HashMap<>();
+    private Map<Long, PendingChange> changesDuringReload;
+    private volatile boolean ready;
+
+    public StudentStatisticsService(StudentRepository studentRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Qualifier("indexReloadExecutor") TaskExecutor reloadExecutor) {
+        this.studentRepository = studentRepository;
+        this.reloadExecutor = reloadExecutor;
+        // The GROUP BY and the lookup of students changed meanwhile must see the same snapshot
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        logger.info("Was invoked method for \"seed\" student statistics");
+        reload();
+    }
+
+    @Scheduled(initialDelayString = "${applications.statistics.reconcile-interval:PT5M}",
+            fixedDelayString = "${applications.statistics.reconcile-interval:PT5M}")
+    public void reconcile() {
+        long countBefore = count();
+        reload();
+        long countAfter = count();
+        if (countBefore != countAfter) {
+            logger.warn("Student statistics drifted by {} students and were reconciled", countAfter - countBefore);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentsBulkChanged(StudentsBulkChangedEvent event) {
+        // Callers read from SQL until the rebuild catches up with the bulk write
+        bulkChanges.incrementAndGet();
+        ready = false;
+        if (reloadPending.compareAndSet(false, true)) {
+            reloadExecutor.execute(() -> {
+                reloadPending.set(false);
+                reload();
+            });
+        }
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(total, byFaculty, event.getBefore());
+            add(total, byFaculty, event.getAfter());
+            if (changesDuringReload != null) {
+                changesDuringReload.computeIfAbsent(event.getStudentId(), id -> new PendingChange(event.getBefore()))
+                        .after = event.getAfter();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long count() {
+        if (!ready) {
+            return studentRepository.count();
+        }
+        lock.readLock().lock();
+        try {
+            return total.count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double averageAge() {
+        if (!ready) {
+            return studentRepository.averageAge();
+        }
+        lock.readLock().lock();
+        try {
+            return total.averageAge();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public StudentStatistics getStatistics() {
+        if (!ready) {
+            AgeCounter sqlTotal = new AgeCounter();
+            Map<Long, AgeCounter> sqlByFaculty = new HashMap<>();
+            load(studentRepository.getAgeGroups(), sqlTotal, sqlByFaculty);
+            return toStatistics(sqlTotal, sqlByFaculty);
+        }
+        lock.readLock().lock();
+        try {
+            return toStatistics(total, byFaculty);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static StudentStatistics toStatistics(AgeCounter total, Map<Long, AgeCounter> byFaculty) {
+        List<FacultyStatistics> faculties = byFaculty.entrySet().stream()
+                .map(entry -> new FacultyStatistics(entry.getKey(), entry.getValue().count,
+                        entry.getValue().averageAge(), new TreeMap<>(entry.getValue().histogram)))
+                .toList();
+        return new StudentStatistics(total.count, total.averageAge(), new TreeMap<>(total.histogram), faculties);
+    }
+
+    private static void load(List<AgeGroup> ageGroups, AgeCounter total, Map<Long, AgeCounter> byFaculty) {
+        for (AgeGroup ageGroup : ageGroups) {
+            total.add(ageGroup.getAge(), ageGroup.getCount());
+            byFaculty.computeIfAbsent(ageGroup.getFacultyId(), facultyId -> new AgeCounter())
+                    .add(ageGroup.getAge(), ageGroup.getCount());
+        }
+    }
+
+    private synchronized void reload() {
+        long bulkChangesBefore = bulkChanges.get();
+        lock.writeLock().lock();
+        try {
+            changesDuringReload = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Snapshot snapshot;
+        try {
+            snapshot = transactionTemplate.execute(status -> {
+                List<AgeGroup> ageGroups = studentRepository.getAgeGroups();
+                Set<Long> changedIds = changedIds();
+                Map<Long, StudentState> counted = new HashMap<>();
+                List<Long> ids = new ArrayList<>(changedIds);
+                for (int from = 0; from < ids.size(); from += CHANGED_IDS_BATCH_SIZE) {
+                    List<Long> batch = ids.subList(from, Math.min(from + CHANGED_IDS_BATCH_SIZE, ids.size()));
+                    for (StudentIndexEntry entry : studentRepository.findIndexEntriesByIdIn(batch)) {
+                        counted.put(entry.getId(), new StudentState(null, entry.getAge(), entry.getFacultyId()));
+                    }
+                }
+                return new Snapshot(ageGroups, changedIds, counted);
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringReload = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        AgeCounter newTotal = new AgeCounter();
+        Map<Long, AgeCounter> newByFaculty = new HashMap<>();
+        load(snapshot.ageGroups, newTotal, newByFaculty);
+        lock.writeLock().lock();
+        try {
+            // Counters are not idempotent, so each student changed during the reload is moved from the state
+            // the snapshot counted to its latest state. Students first changed after the snapshot was read
+            // committed after it, so the snapshot counted the state before their first change.
+            changesDuringReload.forEach((id, change) -> {
+                StudentState counted = snapshot.changedIds.contains(id) ? snapshot.counted.get(id) : change.before;
+                remove(newTotal, newByFaculty, counted);
+                add(newTotal, newByFaculty, change.after);
+            });
+            changesDuringReload = null;
+            total = newTotal;
+            byFaculty = newByFaculty;
+            ready = bulkChanges.get() == bulkChangesBefore;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Set<Long> changedIds() {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(changesDuringReload.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void add(AgeCounter total, Map<Long, AgeCounter> byFaculty, StudentState state) {
+        if (state == null) {
+            return;
+        }
+        total.add(state.getAge(), 1);
+        byFaculty.computeIfAbsent(state.getFacultyId(), facultyId -> new AgeCounter()).add(state.getAge(), 1);
+    }
+
+    private static void remove(AgeCounter total, Map<Long, AgeCounter> byFaculty, StudentState state) {
+        if (state == null) {
+            return;
+        }
+        total.add(state.getAge(), -1);
+        AgeCounter facultyCounter = byFaculty.get(state.getFacultyId());
+        if (facultyCounter != null) {
+            facultyCounter.add(state.getAge(), -1);
+            if (facultyCounter.count <= 0) {
+                byFaculty.remove(state.getFacultyId());
+            }
+        }
+    }
+
+    private static class AgeCounter {
+        private long count;
+        private long ageSum;
+        private final Map<Integer, Long> histogram = new TreeMap<>();
+
+        private void add(int age, long delta) {
+            count += delta;
+            ageSum += age * delta;
+            Long ageCount = histogram.merge(age, delta, Long::sum);
+            if (ageCount <= 0) {
+                histogram.remove(age);
+            }
+        }
+
+        private double averageAge() {
+            return count == 0 ? 0 : (double) ageSum / count;
+        }
+    }
+
+    private static class PendingChange {
+        private final StudentState before;
+        private StudentState after;
+
+        private PendingChange(StudentState before) {
+            this.before = before;
+        }
+    }
+
+    private static class Snapshot {
+        private final List<AgeGroup> ageGroups;
+        private final Set<Long> changedIds;
+        private final Map<Long, StudentState> counted;
+
+        private Snapshot(List<AgeGroup> ageGroups, Set<Long> changedIds, Map<Long, StudentState> counted) {
+            this.ageGroups = ageGroups;
+            this.changedIds = changedIds;
+            this.counted = counted;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package ru.hogwarts.school.service;
+
+import ru.hogwarts.school.dto.SearchDocument;
+import ru.hogwarts.school.dto.SearchHit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+class TrigramIndex {
+    private static final int EXACT = 3;
+    private static final int WORD_PREFIX = 2;
+    private static final int SUBSTRING = 1;
+    private static final int MAX_QUERY_LENGTH = 64;
+    private static final Comparator<SearchHit> RANKING = Comparator.comparingDouble(SearchHit::getScore).reversed()
+            .thenComparingLong(SearchHit::getId);
+    private static final IntList EMPTY = new IntList();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private long[] ids = new long[16];
+    private String[] values = new String[16];
+    private String[] normalized = new String[16];
+    private int[] trigramCounts = new int[16];
+    private int slots;
+
+    TrigramIndex(Collection<SearchDocument> documents) {
+        for (SearchDocument document : documents) {
+            add(document.getId(), document.getValue());
+        }
+    }
+
+    void put(long id, String value) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotsById.get(id);
+            if (slot != null && value != null && value.equals(values[slot])) {
+                return;
+            }
+            delete(id);
+            if (value != null) {
+                add(id, value);
+            }
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            delete(id);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<SearchHit> search(String query, double similarityThreshold, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.length() > MAX_QUERY_LENGTH) {
+            normalizedQuery = normalizedQuery.substring(0, MAX_QUERY_LENGTH).trim();
+        }
+        if (normalizedQuery.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        long[] queryTrigrams = trigrams(normalizedQuery);
+        int interior = substringLowerBound(normalizedQuery);
+        int minShared = Math.max(1, Math.min(interior,
+                (int) Math.ceil(similarityThreshold * queryTrigrams.length / (1 + similarityThreshold))));
+        lock.readLock().lock();
+        try {
+            List<IntList> lists = new ArrayList<>(queryTrigrams.length);
+            for (long trigram : queryTrigrams) {
+                lists.add(postings.getOrDefault(trigram, EMPTY));
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            // A document sharing minShared trigrams must occur in one of the shortest (k - minShared + 1) lists,
+            // so only those lists produce candidates and the longer ones merely add to existing counts.
+            int candidateLists = lists.size() - minShared + 1;
+            byte[] shared = new byte[slots];
+            IntList touched = new IntList();
+            for (int l = 0; l < lists.size(); l++) {
+                IntList posting = lists.get(l);
+                boolean producesCandidates = l < candidateLists;
+                for (int i = 0; i < posting.size; i++) {
+                    int slot = posting.data[i];
+                    if (shared[slot] != 0) {
+                        shared[slot]++;
+                    } else if (producesCandidates) {
+                        shared[slot] = 1;
+                        touched.add(slot);
+                    }
+                }
+            }
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(Math.min(limit, 1024), RANKING.reversed());
+            for (int i = 0; i < touched.size; i++) {
+                int slot = touched.data[i];
+                int common = shared[slot];
+                if (common < minShared || !live.get(slot)) {
+                    continue;
+                }
+                double similarity = (double) common / (queryTrigrams.length + trigramCounts[slot] - common);
+                int matchKindBound = matchKindBound(common, queryTrigrams.length, trigramCounts[slot], interior);
+                if (matchKindBound == 0 && similarity < similarityThreshold
+                        || top.size() == limit && ranksBelow(matchKindBound + similarity, ids[slot], top.peek())) {
+                    continue;
+                }
+                int matchKind = matchKindBound == 0 ? 0 : matchKind(normalized[slot], normalizedQuery);
+                double score = matchKind + similarity;
+                if (matchKind == 0 && similarity < similarityThreshold
+                        || top.size() == limit && ranksBelow(score, ids[slot], top.peek())) {
+                    continue;
+                }
+                if (top.size() == limit) {
+                    top.poll();
+                }
+                top.add(new SearchHit(ids[slot], values[slot], score));
+            }
+            List<SearchHit> hits = new ArrayList<>(top);
+            hits.sort(RANKING);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean ranksBelow(double score, long id, SearchHit worst) {
+        return score < worst.getScore() || score == worst.getScore() && id > worst.getId();
+    }
+
+    private static int matchKindBound(int common, int queryTrigrams, int documentTrigrams, int interior) {
+        if (common == queryTrigrams && common == documentTrigrams) {
+            return EXACT;
+        }
+        if (common >= queryTrigrams - 1) {
+            return WORD_PREFIX;
+        }
+        return interior > 0 && common >= interior ? SUBSTRING : 0;
+    }
+
+    private void add(long id, String value) {
+        if (value == null) {
+            return;
+        }
+        String text = normalize(value);
+        long[] documentTrigrams = trigrams(text);
+        int slot = slots++;
+        ensureCapacity(slots);
+        ids[slot] = id;
+        values[slot] = value;
+        normalized[slot] = text;
+        trigramCounts[slot] = documentTrigrams.length;
+        for (long trigram : documentTrigrams) {
+            postings.computeIfAbsent(trigram, key -> new IntList()).add(slot);
+        }
+        live.set(slot);
+        slotsById.put(id, slot);
+    }
+
+    private void delete(long id) {
+        Integer slot = slotsById.remove(id);
+        if (slot != null) {
+            live.clear(slot);
+            values[slot] = null;
+            normalized[slot] = null;
+        }
+    }
+
+    private void compactIfSparse() {
+        int dead = slots - slotsById.size();
+        if (dead < 1024 || dead < slotsById.size()) {
+            return;
+        }
+        long[] oldIds = Arrays.copyOf(ids, slots);
+        String[] oldValues = Arrays.copyOf(values, slots);
+        int oldSlots = slots;
+        BitSet oldLive = (BitSet) live.clone();
+        slotsById.clear();
+        postings.clear();
+        live.clear();
+        slots = 0;
+        for (int slot = oldLive.nextSetBit(0); slot >= 0 && slot < oldSlots; slot = oldLive.nextSetBit(slot + 1)) {
+            add(oldIds[slot], oldValues[slot]);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newLength);
+        values = Arrays.copyOf(values, newLength);
+        normalized = Arrays.copyOf(normalized, newLength);
+        trigramCounts = Arrays.copyOf(trigramCounts, newLength);
+    }
+
+    private static int matchKind(String text, String query) {
+        if (text.equals(query)) {
+            return EXACT;
+        }
+        if (text.startsWith(query) || text.contains(" " + query)) {
+            return WORD_PREFIX;
+        }
+        return text.contains(query) ? SUBSTRING : 0;
+    }
+
+    private static int substringLowerBound(String query) {
+        Set<Long> interior = new LinkedHashSet<>();
+        for (String word : query.split(" ")) {
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                interior.add(trigram(word.charAt(i), word.charAt(i + 1), word.charAt(i + 2)));
+            }
+        }
+        return interior.size();
+    }
+
+    static String normalize(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        boolean space = true;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                builder.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                builder.append(' ');
+                space = true;
+            }
+        }
+        int length = builder.length();
+        if (length > 0 && builder.charAt(length - 1) == ' ') {
+            builder.setLength(length - 1);
+        }
+        return builder.toString();
+    }
+
+    private static long[] trigrams(String text) {
+        Set<Long> trigrams = new LinkedHashSet<>();
+        for (String word : text.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(trigram(padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2)));
+            }
+        }
+        return trigrams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long trigram(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    private static class IntList {
+        private int[] data = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset katrin_skt:4
+--preconditions onFail:CONTINUE
+--precondition-sql-check expectedResult:1 SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'avatar'
+ALTER TABLE avatar ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+CREATE INDEX IF NOT EXISTS avatar_content_hash_idx ON avatar (content_hash);
@@ -0,0 +1,12 @@
+--liquibase formatted sql
+
+--changeset katrin_skt:3
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT COUNT(*) FROM information_schema.columns WHERE table_name = 'avatar' AND column_name = 'data'
+CREATE TABLE IF NOT EXISTS avatar_data (
+    avatar_id BIGINT PRIMARY KEY REFERENCES avatar (id),
+    data      BYTEA
+);
+INSERT INTO avatar_data (avatar_id, data)
+SELECT id, data FROM avatar WHERE data IS NOT NULL;
+ALTER TABLE avatar DROP COLUMN data;
@@ -0,0 +1,19 @@
+--liquibase formatted sql
+
+--changeset katrin_skt:11
+CREATE TABLE IF NOT EXISTS avatar_job (
+    id              BIGSERIAL PRIMARY KEY,
+    student_id      BIGINT                   NOT NULL,
+    status          VARCHAR(16)              NOT NULL,
+    staged_path     VARCHAR(1024),
+    file_size       BIGINT                   NOT NULL,
+    media_type      VARCHAR(255),
+    store_in_db     BOOLEAN,
+    attempts        INTEGER                  NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE,
+    error           VARCHAR(1024),
+    created_at      TIMESTAMP WITH TIME ZONE,
+    updated_at      TIMESTAMP WITH TIME ZONE,
+    version         BIGINT                   NOT NULL DEFAULT 0
+);
+CREATE INDEX IF NOT EXISTS avatar_job_status_next_attempt_idx ON avatar_job (status, next_attempt_at);
@@ -0,0 +1,32 @@
+--liquibase formatted sql
+
+--changeset katrin_skt:12
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:0 SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'faculties'
+CREATE TABLE IF NOT EXISTS faculties (
+    id    BIGSERIAL PRIMARY KEY,
+    name  VARCHAR(255),
+    color VARCHAR(255)
+);
+
+--changeset katrin_skt:13
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:0 SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'student'
+CREATE TABLE IF NOT EXISTS student (
+    id         BIGINT PRIMARY KEY,
+    name       VARCHAR(255),
+    age        INTEGER NOT NULL,
+    faculty_id BIGINT REFERENCES faculties (id)
+);
+
+--changeset katrin_skt:14
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:0 SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'avatar'
+CREATE TABLE IF NOT EXISTS avatar (
+    id         BIGSERIAL PRIMARY KEY,
+    file_path  VARCHAR(255),
+    file_size  BIGINT NOT NULL,
+    media_type VARCHAR(255),
+    data       BYTEA,
+    student_id BIGINT UNIQUE REFERENCES student (id)
+);
@@ -0,0 +1,16 @@
+--liquibase formatted sql
+
+--changeset katrin_skt:7
+--preconditions onFail:CONTINUE
+--precondition-sql-check expectedResult:1 SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'student'
+ALTER TABLE student ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+--changeset katrin_skt:8
+--preconditions onFail:CONTINUE
+--precondition-sql-check expectedResult:1 SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'faculties'
+ALTER TABLE faculties ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+--changeset katrin_skt:9
+--preconditions onFail:CONTINUE
+--precondition-sql-check expectedResult:1 SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'avatar'
+ALTER TABLE avatar ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
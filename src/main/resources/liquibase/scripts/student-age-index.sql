@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset katrin_skt:10
+--preconditions onFail:CONTINUE
+--precondition-sql-check expectedResult:1 SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'student'
+CREATE INDEX IF NOT EXISTS student_age_id_idx ON student (age, id);
@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset katrin_skt:6
+--preconditions onFail:CONTINUE
+--precondition-sql-check expectedResult:1 SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'student'
+CREATE SEQUENCE IF NOT EXISTS student_seq INCREMENT BY 50;
+SELECT setval('student_seq', (SELECT COALESCE(MAX(id), 0) FROM student) + 50);
@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset katrin_skt:5
+--preconditions onFail:CONTINUE
+--precondition-sql-check expectedResult:1 SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'student'
+CREATE INDEX IF NOT EXISTS student_upper_name_idx ON student (UPPER(name) text_pattern_ops);
@@ -4,26 +4,29 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.assertj.core.api.Assertions;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.repository.FacultyRepository;
 import ru.hogwarts.school.repository.StudentRepository;
 import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.KeysetPaginator;
+import ru.hogwarts.school.service.NdjsonExporter;
+import ru.hogwarts.school.service.SearchService;
 
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
@@ -46,6 +49,18 @@ public class FacultyControllerWebMvcTest {
 
     @MockBean
     private StudentRepository studentRepository;
+
+    @SpyBean
+    private KeysetPaginator keysetPaginator;
+
+    @SpyBean
+    private HttpCachePolicy httpCachePolicy;
+
+    @MockBean
+    private NdjsonExporter ndjsonExporter;
+
+    @MockBean
+    private SearchService searchService;
     @Qualifier("mvcContentNegotiationManager")
 
 
@@ -65,19 +80,17 @@ public class FacultyControllerWebMvcTest {
         newFaculty.setName(newName);
         newFaculty.setColor(newColor);
 
-        when(facultyRepository.findById(any())).thenReturn(Optional.of(oldFaculty));
+        when(facultyRepository.readById(anyLong())).thenReturn(Optional.of(oldFaculty));
         when(facultyRepository.save(any())).thenReturn(newFaculty);
         //test, check
         mockMvc.perform(
                 MockMvcRequestBuilders.put("/faculty/{id}", id)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(newFaculty))
-        ).andExpect(result -> {
-                    MockHttpServletResponse response = result.getResponse();
-                    Faculty responseFaculty = objectMapper.readValue(response.getContentAsString(), Faculty.class);
-                    assertThat(responseFaculty).usingRecursiveComparison().isEqualTo(newFaculty);
-                    assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
-                });
+        ).andExpect(status().isOk());
+        ArgumentCaptor<Faculty> saved = ArgumentCaptor.forClass(Faculty.class);
+        Mockito.verify(facultyRepository).save(saved.capture());
+        assertThat(saved.getValue()).usingRecursiveComparison().isEqualTo(newFaculty);
     }
 
     @Test
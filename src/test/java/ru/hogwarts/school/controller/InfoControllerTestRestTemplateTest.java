@@ -0,0 +1,154 @@
+package ru.hogwarts.school.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.hogwarts.school.dto.SumStrategy;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.InstanceOfAssertFactories.LIST;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class InfoControllerTestRestTemplateTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @AfterEach
+    public void afterEach() {
+        studentRepository.deleteAll();
+    }
+
+    private List<String> createStudents(int count) {
+        return studentRepository.saveAll(IntStream.range(0, count)
+                        .mapToObj(i -> {
+                            Student student = new Student();
+                            student.setName("Student " + i);
+                            student.setAge(11 + i % 7);
+                            return student;
+                        })
+                        .toList())
+                .stream()
+                .map(Student::getName)
+                .toList();
+    }
+
+    private String buildUrl(String UrlStartsWithSlash) {
+        return "http://localhost:%d%s".formatted(port, UrlStartsWithSlash);
+    }
+
+    private ResponseEntity<Map<String, Object>> getForMap(String UrlStartsWithSlash) {
+        return testRestTemplate.exchange(buildUrl(UrlStartsWithSlash), HttpMethod.GET, null,
+                new ParameterizedTypeReference<>() {
+                });
+    }
+
+    @Test
+    void sumRunsEveryStrategyWithTimings() {
+        ResponseEntity<Map<String, Object>> responseEntity = getForMap("/info/sum?n=100001");
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(((Number) responseEntity.getBody().get("result")).longValue()).isEqualTo(5_000_150_001L);
+        List<?> timings = (List<?>) responseEntity.getBody().get("timings");
+        assertThat(timings).hasSize(SumStrategy.values().length)
+                .allSatisfy(timing -> {
+                    Map<?, ?> values = (Map<?, ?>) timing;
+                    assertThat(((Number) values.get("result")).longValue()).isEqualTo(5_000_150_001L);
+                    assertThat(((Number) values.get("durationNanos")).longValue()).isPositive();
+                });
+    }
+
+    @Test
+    void sumSkipsBoxedStrategyForLargeN() {
+        ResponseEntity<Map<String, Object>> responseEntity = getForMap("/info/sum?n=1000001");
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(((Number) responseEntity.getBody().get("result")).longValue()).isEqualTo(500_001_500_001L);
+        assertThat(responseEntity.getBody().get("timings")).asInstanceOf(LIST)
+                .hasSize(SumStrategy.values().length - 1)
+                .noneSatisfy(timing -> assertThat(((Map<?, ?>) timing).get("strategy")).isEqualTo("BOXED"));
+    }
+
+    @Test
+    void sumRejectsBoxedStrategyAboveItsLimit() {
+        ResponseEntity<String> responseEntity = testRestTemplate.getForEntity(
+                buildUrl("/info/sum?n=1000001&strategy=BOXED"), String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void sumWithSingleStrategy() {
+        ResponseEntity<Map<String, Object>> responseEntity = getForMap("/info/sum?n=1000&strategy=PARALLEL");
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(((Number) responseEntity.getBody().get("result")).longValue()).isEqualTo(500_500L);
+        assertThat((List<?>) responseEntity.getBody().get("timings")).hasSize(1);
+    }
+
+    @Test
+    void sumRejectsOutOfRangeN() {
+        ResponseEntity<String> responseEntity = testRestTemplate.getForEntity(buildUrl("/info/sum?n=0"), String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void readNamesOrderedKeepsIdOrder() {
+        List<String> names = createStudents(25);
+
+        ResponseEntity<Map<String, Object>> responseEntity =
+                getForMap("/info/names/ordered?threads=4&batchSize=3&includeNames=true");
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody().get("names")).isEqualTo(names);
+        List<?> threadStatistics = (List<?>) responseEntity.getBody().get("threadStatistics");
+        assertThat(threadStatistics).hasSize(4);
+        assertThat(threadStatistics.stream()
+                .mapToLong(statistics -> ((Number) ((Map<?, ?>) statistics).get("names")).longValue())
+                .sum()).isEqualTo(25);
+    }
+
+    @Test
+    void readNamesParallelReturnsEveryName() {
+        List<String> names = createStudents(25);
+
+        ResponseEntity<Map<String, Object>> responseEntity =
+                getForMap("/info/names/parallel?threads=4&batchSize=3&includeNames=true");
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody().get("names")).asInstanceOf(LIST).containsExactlyInAnyOrderElementsOf(names);
+        assertThat(((Number) responseEntity.getBody().get("totalNames")).longValue()).isEqualTo(25);
+    }
+
+    @Test
+    void readNamesWithoutNamesOnlyCountsThem() {
+        createStudents(25);
+
+        ResponseEntity<Map<String, Object>> responseEntity =
+                getForMap("/info/names/ordered?threads=4&batchSize=3&includeNames=false");
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody().get("names")).isNull();
+        assertThat(((Number) responseEntity.getBody().get("totalNames")).longValue()).isEqualTo(25);
+    }
+}
@@ -0,0 +1,128 @@
+package ru.hogwarts.school.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.datafaker.Faker;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StudentControllerQueryCountTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final Faker faker = new Faker();
+    private final List<Student> students = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    public void beforeEach() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        students.clear();
+        for (int i = 0; i < 4; i++) {
+            Faculty faculty = new Faculty();
+            faculty.setName(faker.harryPotter().house());
+            faculty.setColor(faker.color().name());
+            faculty = facultyRepository.save(faculty);
+            for (int j = 0; j < 3; j++) {
+                Student student = new Student();
+                student.setName(faker.harryPotter().character());
+                student.setAge(15);
+                student.setFaculty(faculty);
+                students.add(studentRepository.save(student));
+            }
+        }
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @AfterEach
+    public void afterEach() {
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+    }
+
+    private String buildUrl(String UrlStartsWithSlash) {
+        return "http://localhost:%d%s".formatted(port, UrlStartsWithSlash);
+    }
+
+    private void assertStatementCount(String url, long expected, Object... uriVariables) {
+        statistics.clear();
+        ResponseEntity<String> responseEntity = testRestTemplate.getForEntity(buildUrl(url), String.class, uriVariables);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(statistics.getPrepareStatementCount())
+                .as("SQL statements for GET %s", url)
+                .isEqualTo(expected);
+    }
+
+    @Test
+    void filterByAgeUsesSingleStatement() {
+        assertStatementCount("/student?age=15", 1);
+    }
+
+    @Test
+    void filterByRangeAgeUsesSingleStatement() {
+        assertStatementCount("/student?minAge=10&maxAge=20", 1);
+    }
+
+    @Test
+    void findStudentsByFacultyIdUsesSingleStatement() {
+        assertStatementCount("/faculty/{id}/students", 1, students.get(0).getFaculty().getId());
+    }
+
+    @Test
+    void getLastFiveStudentsUsesSingleStatement() {
+        assertStatementCount("/student/last-five", 1);
+    }
+
+    @Test
+    void exportByAgeUsesSingleStatement() {
+        assertStatementCount("/student/export?age=15", 1);
+    }
+
+    @Test
+    void getStudentAndFacultyUseSingleStatementAndThenCache() {
+        long id = students.get(0).getId();
+        assertStatementCount("/student/{id}", 1, id);
+        assertStatementCount("/student/{id}", 0, id);
+        assertStatementCount("/student/{id}/faculty", 0, id);
+    }
+
+    @Test
+    void getNamesDoesNotLoadFaculties() {
+        assertStatementCount("/student/names?startWith=A", 1);
+    }
+}
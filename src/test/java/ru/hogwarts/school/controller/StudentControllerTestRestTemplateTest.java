@@ -1,5 +1,8 @@
 package ru.hogwarts.school.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import net.datafaker.Faker;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -10,16 +13,45 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.dto.StudentStatistics;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarJob;
+import ru.hogwarts.school.model.AvatarJobStatus;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarDataRepository;
+import ru.hogwarts.school.repository.AvatarJobRepository;
+import ru.hogwarts.school.repository.AvatarRepository;
 import ru.hogwarts.school.repository.FacultyRepository;
 import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.AvatarStore;
+import ru.hogwarts.school.service.StudentIndex;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +60,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -46,6 +79,22 @@ class StudentControllerTestRestTemplateTest {
     private StudentController studentController;
     @Autowired
     private FacultyRepository facultyRepository;
+    @Autowired
+    private AvatarRepository avatarRepository;
+    @Autowired
+    private AvatarDataRepository avatarDataRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private StudentIndex studentIndex;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AvatarStore avatarStore;
+    @Autowired
+    private AvatarJobRepository avatarJobRepository;
 
     private final Faker faker = new Faker();
     private final List<Student> students = new ArrayList<>(10);
@@ -53,6 +102,8 @@ class StudentControllerTestRestTemplateTest {
 
     @AfterEach
     public void afterEach() {
+        avatarDataRepository.deleteAll();
+        avatarRepository.deleteAll();
         studentRepository.deleteAll();
         facultyRepository.deleteAll();
     }
@@ -157,6 +208,7 @@ class StudentControllerTestRestTemplateTest {
 
         Faculty faculty = new Faculty();
         faculty.setId(-1L);
+        student.setFaculty(faculty);
 
         ResponseEntity<String> responseEntity = testRestTemplate.postForEntity(
                 buildUrl("/student"),
@@ -214,7 +266,7 @@ class StudentControllerTestRestTemplateTest {
         Student actualNew = actual.orElseThrow();
         assertThat(actualNew)
                 .usingRecursiveComparison()
-                .ignoringFields("id")
+                .ignoringFields("id", "version")
                 .isEqualTo(student3);
     }
 
@@ -307,4 +359,855 @@ class StudentControllerTestRestTemplateTest {
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
         assertThat(responseEntity.getBody()).isEqualTo("Студент с id = %d не найден".formatted(-1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAvatarFromFsSupportsRangeAndConditionalRequests() throws Exception {
+        Student student = students.get(0);
+        Path avatarPath = Files.createTempFile("avatar-", ".png");
+        byte[] content = "0123456789".getBytes(StandardCharsets.UTF_8);
+        Files.write(avatarPath, content);
+        Avatar avatar = new Avatar();
+        avatar.setStudent(student);
+        avatar.setFilePath(avatarPath.toString());
+        avatar.setFileSize(content.length);
+        avatar.setMediaType(MediaType.IMAGE_PNG_VALUE);
+        avatarRepository.save(avatar);
+        try {
+            ResponseEntity<byte[]> full = testRestTemplate.getForEntity(
+                    buildUrl("/student/{id}/avatar-from-fs"), byte[].class, student.getId());
+            assertThat(full.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(full.getBody()).isEqualTo(content);
+            assertThat(full.getHeaders().getETag()).isNotNull();
+
+            HttpHeaders rangeHeaders = new HttpHeaders();
+            rangeHeaders.setRange(List.of(HttpRange.createByteRange(2, 5)));
+            ResponseEntity<byte[]> partial = testRestTemplate.exchange(
+                    buildUrl("/student/{id}/avatar-from-fs"), HttpMethod.GET,
+                    new HttpEntity<>(rangeHeaders), byte[].class, student.getId());
+            assertThat(partial.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+            assertThat(partial.getBody()).isEqualTo("2345".getBytes(StandardCharsets.UTF_8));
+
+            HttpHeaders conditionalHeaders = new HttpHeaders();
+            conditionalHeaders.setIfNoneMatch(full.getHeaders().getETag());
+            ResponseEntity<byte[]> notModified = testRestTemplate.exchange(
+                    buildUrl("/student/{id}/avatar-from-fs"), HttpMethod.GET,
+                    new HttpEntity<>(conditionalHeaders), byte[].class, student.getId());
+            assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+            assertThat(notModified.getBody()).isNull();
+        } finally {
+            Files.deleteIfExists(avatarPath);
+        }
+    }
+
+    @Test
+    void getAvatarPageReturnsMetadataOnly() {
+        Student student = students.get(0);
+        Avatar avatar = new Avatar();
+        avatar.setStudent(student);
+        avatar.setFilePath("avatar/test.png");
+        avatar.setFileSize(10);
+        avatar.setMediaType(MediaType.IMAGE_PNG_VALUE);
+        avatarRepository.save(avatar);
+
+        ResponseEntity<List<Map<String, Object>>> responseEntity = testRestTemplate.exchange(
+                buildUrl("/avatars?page=1&size=10"),
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                }
+        );
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).hasSize(1);
+        assertThat(responseEntity.getBody().get(0))
+                .containsEntry("filePath", "avatar/test.png")
+                .containsEntry("studentId", student.getId().intValue())
+                .doesNotContainKey("data");
+    }
+
+    @Test
+    void uploadAvatarStreamsToFsAndOptionallyToDb() throws Exception {
+        Student student = students.get(0);
+        byte[] content = "not really a png".getBytes(StandardCharsets.UTF_8);
+        HttpHeaders partHeaders = new HttpHeaders();
+        partHeaders.setContentType(MediaType.IMAGE_PNG);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("avatar", new HttpEntity<>(new ByteArrayResource(content) {
+            @Override
+            public String getFilename() {
+                return "avatar.png";
+            }
+        }, partHeaders));
+
+        ResponseEntity<Map<String, Object>> upload =
+                postAvatar("/avatars?studentId={id}&storeInDb=true", body, student.getId());
+        assertThat(upload.getHeaders().getLocation()).hasPath("/avatars/jobs/" + upload.getBody().get("id"));
+        assertThat(awaitAvatarJob(upload))
+                .containsEntry("status", "DONE")
+                .containsEntry("attempts", 1)
+                .doesNotContainKey("stagedPath");
+
+        Avatar avatar = avatarRepository.findByStudent_Id(student.getId()).orElseThrow();
+        assertThat(avatar.getFileSize()).isEqualTo(content.length);
+        assertThat(avatar.getContentHash()).hasSize(64);
+        assertThat(testRestTemplate.getForObject(buildUrl("/student/{id}/avatar-from-db"), byte[].class, student.getId()))
+                .isEqualTo(content);
+        assertThat(testRestTemplate.getForObject(buildUrl("/student/{id}/avatar-from-fs"), byte[].class, student.getId()))
+                .isEqualTo(content);
+    }
+
+    @Test
+    void avatarDownloadsAndRequestLatenciesAreMetered() throws Exception {
+        Student student = students.get(0);
+        byte[] content = "metered avatar".getBytes(StandardCharsets.UTF_8);
+        HttpHeaders partHeaders = new HttpHeaders();
+        partHeaders.setContentType(MediaType.IMAGE_PNG);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("avatar", new HttpEntity<>(new ByteArrayResource(content) {
+            @Override
+            public String getFilename() {
+                return "avatar.png";
+            }
+        }, partHeaders));
+        awaitAvatarJob(postAvatar("/avatars?studentId={id}&storeInDb=true", body, student.getId()));
+        double dbBytesBefore = avatarBytesServed("db");
+        double fsBytesBefore = avatarBytesServed("fs");
+
+        ResponseEntity<byte[]> fromDb = testRestTemplate.getForEntity(
+                buildUrl("/student/{id}/avatar-from-db"), byte[].class, student.getId());
+        testRestTemplate.getForObject(buildUrl("/student/{id}/avatar-from-fs"), byte[].class, student.getId());
+        HttpHeaders conditionalHeaders = new HttpHeaders();
+        conditionalHeaders.setIfNoneMatch(fromDb.getHeaders().getETag());
+        for (String source : List.of("db", "fs")) {
+            ResponseEntity<byte[]> notModified = testRestTemplate.exchange(
+                    buildUrl("/student/{id}/avatar-from-" + source), HttpMethod.GET,
+                    new HttpEntity<>(conditionalHeaders), byte[].class, student.getId());
+            assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        }
+
+        assertThat(avatarBytesServed("db") - dbBytesBefore).isEqualTo(content.length);
+        assertThat(avatarBytesServed("fs") - fsBytesBefore).isEqualTo(content.length);
+        assertThat(meterRegistry.find("http.server.requests").tag("uri", "/student/{id}/avatar-from-db").timer())
+                .isNotNull();
+        assertThat(meterRegistry.find("spring.data.repository.invocations")
+                .tag("repository", "AvatarRepository").timers())
+                .isNotEmpty();
+        assertThat(meterRegistry.find("cache.hit.ratio").tag("cache", "students").gauge()).isNotNull();
+    }
+
+    private double avatarBytesServed(String source) {
+        return meterRegistry.get("avatar.bytes.served").tag("source", source).counter().count();
+    }
+
+    @Test
+    void uploadAvatarForMissingStudentFailsJobWithoutRetries() throws Exception {
+        HttpHeaders partHeaders = new HttpHeaders();
+        partHeaders.setContentType(MediaType.IMAGE_PNG);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("avatar", new HttpEntity<>(new ByteArrayResource("orphan".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public String getFilename() {
+                return "avatar.png";
+            }
+        }, partHeaders));
+
+        ResponseEntity<Map<String, Object>> upload = postAvatar("/avatars?studentId={id}", body, -1);
+
+        assertThat(upload.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(awaitAvatarJob(upload))
+                .containsEntry("status", "FAILED")
+                .containsEntry("attempts", 1)
+                .containsEntry("error", "Студент с id = -1 не найден");
+        assertThat(testRestTemplate.getForEntity(buildUrl("/avatars/jobs/{id}"), String.class, Long.MAX_VALUE)
+                .getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void jobThatKeepsLosingItsWorkerIsFailedInsteadOfReclaimed() throws Exception {
+        byte[] content = "never processed".getBytes(StandardCharsets.UTF_8);
+        Path stagedPath = avatarStore.stage(new ByteArrayInputStream(content), content.length);
+        Instant expired = Instant.now().minus(Duration.ofHours(1));
+        AvatarJob exhausted = new AvatarJob();
+        exhausted.setStudentId(students.get(0).getId());
+        exhausted.setStatus(AvatarJobStatus.PROCESSING);
+        exhausted.setStagedPath(stagedPath.toString());
+        exhausted.setFileSize(content.length);
+        exhausted.setAttempts(5);
+        exhausted.setNextAttemptAt(expired);
+        exhausted.setCreatedAt(expired);
+        exhausted.setUpdatedAt(expired);
+        exhausted = avatarJobRepository.save(exhausted);
+        HttpHeaders partHeaders = new HttpHeaders();
+        partHeaders.setContentType(MediaType.IMAGE_PNG);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("avatar", new HttpEntity<>(new ByteArrayResource(content) {
+            @Override
+            public String getFilename() {
+                return "avatar.png";
+            }
+        }, partHeaders));
+
+        // The new upload wakes the worker, which has to get past the exhausted job first
+        assertThat(awaitAvatarJob(postAvatar("/avatars?studentId={id}", body, students.get(1).getId())))
+                .containsEntry("status", "DONE");
+
+        AvatarJob failed = avatarJobRepository.findById(exhausted.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(AvatarJobStatus.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(5);
+        assertThat(failed.getError()).isNotNull();
+        assertThat(stagedPath).doesNotExist();
+    }
+
+    private ResponseEntity<Map<String, Object>> postAvatar(String url, MultiValueMap<String, Object> body,
+                                                           Object... uriVariables) {
+        return testRestTemplate.exchange(buildUrl(url), HttpMethod.POST, new HttpEntity<>(body),
+                new ParameterizedTypeReference<>() {
+                }, uriVariables);
+    }
+
+    private Map<String, Object> awaitAvatarJob(ResponseEntity<Map<String, Object>> upload) throws InterruptedException {
+        assertThat(upload.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        Object id = upload.getBody().get("id");
+        Map<String, Object> job = upload.getBody();
+        for (int attempt = 0; attempt < 50 && !List.of("DONE", "FAILED").contains(job.get("status")); attempt++) {
+            Thread.sleep(100);
+            job = testRestTemplate.exchange(buildUrl("/avatars/jobs/{id}"), HttpMethod.GET, HttpEntity.EMPTY,
+                    new ParameterizedTypeReference<Map<String, Object>>() {
+                    }, id).getBody();
+        }
+        return job;
+    }
+
+    @Test
+    void garbageCollectionRemovesExpiredOrphanedStagedUploads() throws Exception {
+        Path stagingDir = Files.createDirectories(Path.of("./target/avatar/jobs"));
+        Path orphaned = Files.createTempFile(stagingDir, "job-", ".upload");
+        Path fresh = Files.createTempFile(stagingDir, "job-", ".upload");
+        Files.setLastModifiedTime(orphaned, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        try {
+            avatarStore.collectGarbage();
+
+            assertThat(orphaned).doesNotExist();
+            assertThat(fresh).exists();
+        } finally {
+            Files.deleteIfExists(orphaned);
+            Files.deleteIfExists(fresh);
+        }
+    }
+
+    @Test
+    void getAvatarPreviewFromFs() throws Exception {
+        Student student = students.get(0);
+        BufferedImage image = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream imageBytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", imageBytes);
+        HttpHeaders partHeaders = new HttpHeaders();
+        partHeaders.setContentType(MediaType.IMAGE_PNG);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("avatar", new HttpEntity<>(new ByteArrayResource(imageBytes.toByteArray()) {
+            @Override
+            public String getFilename() {
+                return "avatar.png";
+            }
+        }, partHeaders));
+        awaitAvatarJob(postAvatar("/avatars?studentId={id}", body, student.getId()));
+
+        BufferedImage preview = null;
+        for (int attempt = 0; attempt < 50 && (preview == null || preview.getWidth() != 64); attempt++) {
+            Thread.sleep(100);
+            byte[] previewBytes = testRestTemplate.getForObject(
+                    buildUrl("/student/{id}/avatar-from-fs?size=64"), byte[].class, student.getId());
+            preview = ImageIO.read(new ByteArrayInputStream(previewBytes));
+        }
+        assertThat(preview).isNotNull();
+        assertThat(preview.getWidth()).isEqualTo(64);
+        assertThat(preview.getHeight()).isEqualTo(43);
+    }
+
+    @Test
+    void uploadSameAvatarTwiceStoresItOnce() throws Exception {
+        Student student1 = students.get(0);
+        Student student2 = students.get(1);
+        byte[] content = "same picture".getBytes(StandardCharsets.UTF_8);
+        HttpHeaders partHeaders = new HttpHeaders();
+        partHeaders.setContentType(MediaType.IMAGE_PNG);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("avatar", new HttpEntity<>(new ByteArrayResource(content) {
+            @Override
+            public String getFilename() {
+                return "avatar.png";
+            }
+        }, partHeaders));
+        awaitAvatarJob(postAvatar("/avatars?studentId={id}", body, student1.getId()));
+        awaitAvatarJob(postAvatar("/avatars?studentId={id}", body, student2.getId()));
+
+        Avatar avatar1 = avatarRepository.findByStudent_Id(student1.getId()).orElseThrow();
+        Avatar avatar2 = avatarRepository.findByStudent_Id(student2.getId()).orElseThrow();
+        assertThat(avatar1.getFilePath()).isEqualTo(avatar2.getFilePath());
+        assertThat(avatar1.getFilePath()).endsWith(avatar1.getContentHash());
+
+        ResponseEntity<byte[]> responseEntity = testRestTemplate.getForEntity(
+                buildUrl("/student/{id}/avatar-from-fs"), byte[].class, student2.getId());
+        assertThat(responseEntity.getHeaders().getETag()).isEqualTo("\"" + avatar1.getContentHash() + "\"");
+    }
+
+    @Test
+    void getStudentIsServedFromCacheAndInvalidatedOnUpdate() {
+        Student student = students.get(0);
+        testRestTemplate.getForObject(buildUrl("/student/{id}"), Student.class, student.getId());
+        long hitsBefore = studentCacheHits();
+        Student cached = testRestTemplate.getForObject(buildUrl("/student/{id}"), Student.class, student.getId());
+        assertThat(cached.getName()).isEqualTo(student.getName());
+        assertThat(studentCacheHits()).isGreaterThan(hitsBefore);
+
+        Student changed = new Student();
+        changed.setName(student.getName() + " Jr.");
+        changed.setAge(student.getAge());
+        testRestTemplate.put(buildUrl("/student/{id}"), changed, student.getId());
+
+        Student actual = testRestTemplate.getForObject(buildUrl("/student/{id}"), Student.class, student.getId());
+        assertThat(actual.getName()).isEqualTo(changed.getName());
+    }
+
+    @Test
+    void updateHonoursIfMatch() {
+        Student student = students.get(0);
+        ResponseEntity<Student> current = testRestTemplate.getForEntity(
+                buildUrl("/student/{id}"), Student.class, student.getId());
+        String eTag = current.getHeaders().getETag();
+        Student changed = new Student();
+        changed.setName(student.getName() + " Jr.");
+        changed.setAge(student.getAge());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(eTag);
+
+        ResponseEntity<String> updated = testRestTemplate.exchange(buildUrl("/student/{id}"), HttpMethod.PUT,
+                new HttpEntity<>(changed, headers), String.class, student.getId());
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> stale = testRestTemplate.exchange(buildUrl("/student/{id}"), HttpMethod.PUT,
+                new HttpEntity<>(changed, headers), String.class, student.getId());
+        assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(stale.getBody()).isEqualTo(
+                "Запись с id = %d была изменена: версия не совпадает с заголовком If-Match".formatted(student.getId()));
+    }
+
+    private long studentCacheHits() {
+        ResponseEntity<List<Map<String, Object>>> responseEntity = testRestTemplate.exchange(
+                buildUrl("/info/cache-statistics"),
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                }
+        );
+        return responseEntity.getBody().stream()
+                .filter(statistics -> "students".equals(statistics.get("name")))
+                .map(statistics -> ((Number) statistics.get("hitCount")).longValue())
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void averageAge() {
+        double expected = students.stream()
+                .mapToInt(Student::getAge)
+                .average()
+                .orElse(0);
+
+        Double actual = testRestTemplate.getForObject(buildUrl("/student/average-age"), Double.class);
+
+        assertThat(actual).isCloseTo(expected, within(0.0001));
+    }
+
+    @Test
+    void getNameOfStudentsWhichStartsWith() {
+        char startWith = students.get(0).getName().charAt(0);
+        List<String> expected = students.stream()
+                .map(Student::getName)
+                .map(String::toUpperCase)
+                .filter(name -> name.startsWith(Character.toString(startWith).toUpperCase()))
+                .sorted()
+                .toList();
+
+        ResponseEntity<List<String>> responseEntity = testRestTemplate.exchange(
+                buildUrl("/student/names?startWith={startWith}"),
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                },
+                Map.of("startWith", Character.toLowerCase(startWith))
+        );
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).isEqualTo(expected);
+    }
+
+    @Test
+    void getStatisticsFollowsWrites() {
+        StudentStatistics statistics = testRestTemplate.getForObject(buildUrl("/student/statistics"), StudentStatistics.class);
+        assertThat(statistics.getCount()).isEqualTo(students.size());
+        assertThat(statistics.getFaculties()).hasSize(2)
+                .allSatisfy(faculty -> assertThat(faculty.getCount()).isEqualTo(5));
+        assertThat(statistics.getAgeHistogram().values().stream().mapToLong(Long::longValue).sum())
+                .isEqualTo(students.size());
+
+        Student student = students.get(0);
+        testRestTemplate.delete(buildUrl("/student/{id}"), student.getId());
+
+        assertThat(testRestTemplate.getForObject(buildUrl("/student/count"), Long.class))
+                .isEqualTo(students.size() - 1);
+    }
+
+    @Test
+    void filterByRangeAgeWalksAllPagesWithCursor() {
+        List<Long> expected = students.stream()
+                .map(Student::getId)
+                .sorted()
+                .toList();
+
+        List<Long> actual = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            ResponseEntity<List<Student>> responseEntity = testRestTemplate.exchange(
+                    buildUrl("/student?minAge=0&maxAge=100&limit=3&cursor={cursor}"),
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<>() {
+                    },
+                    Map.of("cursor", cursor)
+            );
+            assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(responseEntity.getBody()).hasSizeLessThanOrEqualTo(3);
+            responseEntity.getBody().forEach(student -> actual.add(student.getId()));
+            cursor = responseEntity.getHeaders().getFirst("X-Next-Cursor");
+            pages++;
+        } while (cursor != null);
+
+        assertThat(actual).isEqualTo(expected);
+        assertThat(pages).isEqualTo(4);
+    }
+
+    @Test
+    void filterByRangeAgeRechecksAgeOfIdsFromStaleIndex() throws InterruptedException {
+        for (int attempt = 0; attempt < 50 && !studentIndex.isReady(); attempt++) {
+            Thread.sleep(100);
+        }
+        assertThat(studentIndex.isReady()).isTrue();
+        List<Long> ids = students.stream().map(Student::getId).sorted().toList();
+        // Changed behind the application's back, so the in-memory index still lists both ids
+        jdbcTemplate.update("UPDATE student SET age = 99 WHERE id IN (?, ?)", ids.get(0), ids.get(1));
+
+        ResponseEntity<List<Student>> responseEntity = testRestTemplate.exchange(
+                buildUrl("/student?minAge=0&maxAge=50&limit=3"),
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                }
+        );
+
+        assertThat(responseEntity.getBody()).extracting(Student::getId).containsExactlyElementsOf(ids.subList(2, 5));
+        assertThat(responseEntity.getHeaders().getFirst("X-Next-Cursor")).isNotNull();
+    }
+
+    @Test
+    void filterByAgeWithInvalidCursor() {
+        ResponseEntity<String> responseEntity = testRestTemplate.getForEntity(
+                buildUrl("/student?age=11&cursor=garbage"), String.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void exportStudentsByFacultyIdAsNdjson() throws Exception {
+        Faculty faculty = students.get(0).getFaculty();
+        List<Long> expected = students.stream()
+                .filter(student -> student.getFaculty().getId().equals(faculty.getId()))
+                .map(Student::getId)
+                .sorted()
+                .toList();
+
+        ResponseEntity<String> responseEntity = testRestTemplate.getForEntity(
+                buildUrl("/faculty/{id}/students/export"), String.class, faculty.getId());
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        List<Long> actual = new ArrayList<>();
+        for (String line : responseEntity.getBody().split("\n")) {
+            actual.add(objectMapper.readValue(line, Student.class).getId());
+        }
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void importStudentsFromJsonReportsBadRows() throws Exception {
+        Faculty faculty = students.get(0).getFaculty();
+        String body = """
+                [
+                  {"name": "Harry", "age": 11, "faculty": {"id": %d}},
+                  {"name": "", "age": 12},
+                  {"name": "Ron", "age": 11, "facultyId": -1},
+                  {"name": "Hermione", "age": 12}
+                ]
+                """.formatted(faculty.getId());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> responseEntity = testRestTemplate.postForEntity(
+                buildUrl("/student/import"), new HttpEntity<>(body, headers), String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<?, ?> result = objectMapper.readValue(responseEntity.getBody(), Map.class);
+        assertThat(result.get("imported")).isEqualTo(2);
+        assertThat(result.get("failed")).isEqualTo(2);
+        assertThat(((List<?>) result.get("errors")).stream().map(error -> ((Map<?, ?>) error).get("row")).toList())
+                .isEqualTo(List.of(2, 3));
+        assertThat(studentRepository.findAllByFaculty_Id(faculty.getId()))
+                .extracting(Student::getName)
+                .contains("Harry");
+        assertThat(studentRepository.count()).isEqualTo(students.size() + 2);
+    }
+
+    @Test
+    void importStudentsFromCsv() throws Exception {
+        Faculty faculty = students.get(0).getFaculty();
+        String body = """
+                name,age,facultyId
+                "Weasley, Fred",15,%d
+                George,fifteen,
+                Luna,14,
+                """.formatted(faculty.getId());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+
+        ResponseEntity<String> responseEntity = testRestTemplate.postForEntity(
+                buildUrl("/student/import"), new HttpEntity<>(body, headers), String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<?, ?> result = objectMapper.readValue(responseEntity.getBody(), Map.class);
+        assertThat(result.get("imported")).isEqualTo(2);
+        assertThat(result.get("failed")).isEqualTo(1);
+        assertThat(studentRepository.findAllByFaculty_Id(faculty.getId()))
+                .extracting(Student::getName)
+                .contains("Weasley, Fred");
+    }
+
+    @Test
+    void importStudentsWithMalformedJson() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> responseEntity = testRestTemplate.postForEntity(
+                buildUrl("/student/import"), new HttpEntity<>("{\"name\": \"Harry\"}", headers), String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void importStudentsReportsElementsThatAreNotObjects() throws Exception {
+        String body = """
+                [{"name": "Harry", "age": 11}, 5, {"name": "Ron", "age": 11}, [1, {"a": 2}], {"name": "Luna", "age": 14}]
+                """;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> responseEntity = testRestTemplate.postForEntity(
+                buildUrl("/student/import"), new HttpEntity<>(body, headers), String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode result = objectMapper.readTree(responseEntity.getBody());
+        assertThat(result.get("imported").asLong()).isEqualTo(3);
+        assertThat(result.get("failed").asLong()).isEqualTo(2);
+        assertThat(result.get("errors").findValuesAsText("row")).containsExactly("2", "4");
+        assertThat(studentRepository.count()).isEqualTo(students.size() + 3);
+    }
+
+    @Test
+    void importStudentsReportsRowsCommittedBeforeSyntaxError() throws Exception {
+        String body = """
+                [{"name": "Harry", "age": 11}, {"name": "", "age": 12}, {"name": "Ron", "age": }]
+                """;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> responseEntity = testRestTemplate.postForEntity(
+                buildUrl("/student/import"), new HttpEntity<>(body, headers), String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode result = objectMapper.readTree(responseEntity.getBody());
+        assertThat(result.get("imported").asLong()).isEqualTo(1);
+        assertThat(result.get("failed").asLong()).isEqualTo(2);
+        assertThat(result.get("errors").findValuesAsText("row")).containsExactly("2", "3");
+        assertThat(studentRepository.count()).isEqualTo(students.size() + 1);
+    }
+
+    @Test
+    void importStudentsReportsTrailingDataAfterArray() throws Exception {
+        String body = """
+                [{"name": "Harry", "age": 11}] {"name": "Ron", "age": 11}
+                """;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> responseEntity = testRestTemplate.postForEntity(
+                buildUrl("/student/import"), new HttpEntity<>(body, headers), String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode result = objectMapper.readTree(responseEntity.getBody());
+        assertThat(result.get("imported").asLong()).isEqualTo(1);
+        assertThat(result.get("failed").asLong()).isEqualTo(1);
+        assertThat(result.get("errors").findValuesAsText("row")).containsExactly("2");
+        assertThat(studentRepository.count()).isEqualTo(students.size() + 1);
+    }
+
+    @Test
+    void moveStudentsBetweenFacultiesInvalidatesCache() {
+        Faculty from = students.get(0).getFaculty();
+        Faculty to = students.get(students.size() - 1).getFaculty();
+        Student student = students.get(0);
+        assertThat(testRestTemplate.getForObject(buildUrl("/student/{id}/faculty"), Faculty.class, student.getId()).getId())
+                .isEqualTo(from.getId());
+
+        RestTemplate restTemplate = new RestTemplate(new JdkClientHttpRequestFactory());
+        Integer moved = restTemplate.exchange(buildUrl("/faculty/{id}/students?to={to}"), HttpMethod.PATCH,
+                HttpEntity.EMPTY, Integer.class, from.getId(), to.getId()).getBody();
+
+        assertThat(moved).isEqualTo(5);
+        assertThat(testRestTemplate.getForObject(buildUrl("/student/{id}/faculty"), Faculty.class, student.getId()).getId())
+                .isEqualTo(to.getId());
+        assertThat(studentRepository.findAllByFaculty_Id(to.getId())).hasSize(10);
+        StudentStatistics statistics = testRestTemplate.getForObject(buildUrl("/student/statistics"), StudentStatistics.class);
+        assertThat(statistics.getFaculties()).hasSize(1);
+    }
+
+    @Test
+    void getStudentHonoursIfNoneMatchUntilVersionChanges() {
+        Student student = students.get(0);
+        ResponseEntity<Student> first = testRestTemplate.getForEntity(
+                buildUrl("/student/{id}"), Student.class, student.getId());
+        String eTag = first.getHeaders().getETag();
+        assertThat(eTag).isNotNull().doesNotStartWith("W/");
+        assertThat(first.getHeaders().getCacheControl()).contains("no-cache");
+
+        HttpHeaders conditionalHeaders = new HttpHeaders();
+        conditionalHeaders.setIfNoneMatch(eTag);
+        ResponseEntity<String> notModified = testRestTemplate.exchange(buildUrl("/student/{id}"), HttpMethod.GET,
+                new HttpEntity<>(conditionalHeaders), String.class, student.getId());
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getBody()).isNull();
+        assertThat(notModified.getHeaders().getETag()).isEqualTo(eTag);
+
+        Student changed = new Student();
+        changed.setName("Changed");
+        changed.setAge(student.getAge());
+        changed.setFaculty(student.getFaculty());
+        testRestTemplate.put(buildUrl("/student/{id}"), changed, student.getId());
+
+        ResponseEntity<Student> modified = testRestTemplate.exchange(buildUrl("/student/{id}"), HttpMethod.GET,
+                new HttpEntity<>(conditionalHeaders), Student.class, student.getId());
+        assertThat(modified.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(modified.getHeaders().getETag()).isNotEqualTo(eTag);
+        assertThat(modified.getBody().getName()).isEqualTo("Changed");
+    }
+
+    @Test
+    void facultyStudentsETagChangesAfterBulkMove() {
+        Faculty from = students.get(0).getFaculty();
+        Faculty to = students.get(students.size() - 1).getFaculty();
+        String eTag = testRestTemplate.getForEntity(buildUrl("/faculty/{id}/students"), String.class, to.getId())
+                .getHeaders().getETag();
+        HttpHeaders conditionalHeaders = new HttpHeaders();
+        conditionalHeaders.setIfNoneMatch(eTag);
+        assertThat(testRestTemplate.exchange(buildUrl("/faculty/{id}/students"), HttpMethod.GET,
+                new HttpEntity<>(conditionalHeaders), String.class, to.getId()).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        RestTemplate restTemplate = new RestTemplate(new JdkClientHttpRequestFactory());
+        restTemplate.exchange(buildUrl("/faculty/{id}/students?to={to}"), HttpMethod.PATCH,
+                HttpEntity.EMPTY, Integer.class, from.getId(), to.getId());
+
+        assertThat(testRestTemplate.exchange(buildUrl("/faculty/{id}/students"), HttpMethod.GET,
+                new HttpEntity<>(conditionalHeaders), String.class, to.getId()).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(studentRepository.findById(students.get(0).getId()).orElseThrow().getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void countStudentsByRangeAgeAndFacultyFromIndex() {
+        Faculty faculty = students.get(0).getFaculty();
+        long expectedInRange = students.stream().filter(s -> s.getAge() >= 13 && s.getAge() <= 15).count();
+        long expectedInFaculty = students.stream()
+                .filter(s -> s.getAge() >= 13 && s.getAge() <= 15 && s.getFaculty().getId().equals(faculty.getId()))
+                .count();
+
+        assertThat(testRestTemplate.getForObject(buildUrl("/student/count?minAge=13&maxAge=15"), Long.class))
+                .isEqualTo(expectedInRange);
+        assertThat(testRestTemplate.getForObject(buildUrl("/student/count?minAge=13&maxAge=15&facultyId={id}"),
+                Long.class, faculty.getId()))
+                .isEqualTo(expectedInFaculty);
+
+        Student moved = students.get(0);
+        Student update = new Student();
+        update.setName(moved.getName());
+        update.setAge(14);
+        testRestTemplate.put(buildUrl("/student/{id}"), update, moved.getId());
+        long expectedAfterUpdate = expectedInFaculty - (moved.getAge() >= 13 && moved.getAge() <= 15 ? 1 : 0);
+        assertThat(testRestTemplate.getForObject(buildUrl("/student/count?minAge=13&maxAge=15&facultyId={id}"),
+                Long.class, faculty.getId()))
+                .isEqualTo(expectedAfterUpdate);
+        assertThat(meterRegistry.get("student.index.bytes.per.student").gauge().value()).isPositive();
+    }
+
+    @Test
+    void countStudentsStaysCorrectWhileIndexRebuildsAfterBulkRemove() throws InterruptedException {
+        long expectedAfterRemove = students.stream().filter(s -> s.getAge() < 13 || s.getAge() > 15).count();
+
+        testRestTemplate.exchange(buildUrl("/student?minAge=13&maxAge=15"), HttpMethod.DELETE, HttpEntity.EMPTY,
+                Integer.class);
+
+        assertThat(testRestTemplate.getForObject(buildUrl("/student/count?minAge=11&maxAge=20"), Long.class))
+                .isEqualTo(expectedAfterRemove);
+        for (int attempt = 0; attempt < 50 && !studentIndex.isReady(); attempt++) {
+            Thread.sleep(100);
+        }
+        assertThat(studentIndex.isReady()).isTrue();
+        assertThat(testRestTemplate.getForObject(buildUrl("/student/count?minAge=11&maxAge=20"), Long.class))
+                .isEqualTo(expectedAfterRemove);
+    }
+
+    @Test
+    void statisticsCatchUpWithBulkRemoveInBackground() throws InterruptedException {
+        List<Student> remaining = students.stream().filter(s -> s.getAge() < 13 || s.getAge() > 15).toList();
+
+        testRestTemplate.exchange(buildUrl("/student?minAge=13&maxAge=15"), HttpMethod.DELETE, HttpEntity.EMPTY,
+                Integer.class);
+
+        for (int attempt = 0; attempt < 50
+                && testRestTemplate.getForObject(buildUrl("/student/count"), Long.class) != remaining.size(); attempt++) {
+            Thread.sleep(100);
+        }
+        StudentStatistics statistics = testRestTemplate.getForObject(buildUrl("/student/statistics"), StudentStatistics.class);
+        assertThat(statistics.getCount()).isEqualTo(remaining.size());
+        assertThat(statistics.getAgeHistogram().values().stream().mapToLong(Long::longValue).sum())
+                .isEqualTo(remaining.size());
+        Student extra = new Student();
+        extra.setName(faker.harryPotter().character());
+        extra.setAge(12);
+        studentRepository.save(extra);
+        assertThat(testRestTemplate.getForObject(buildUrl("/student/count"), Long.class))
+                .isEqualTo(remaining.size() + 1);
+    }
+
+    @Test
+    void searchStudentsByPrefixSubstringAndTypo() {
+        // Faker draws from the same Harry Potter names, so the random setup students could tie in the ranking
+        studentRepository.deleteAll();
+        Student hermione = new Student();
+        hermione.setName("Hermione Granger");
+        hermione.setAge(12);
+        hermione = studentRepository.save(hermione);
+        Student herbert = new Student();
+        herbert.setName("Herbert Beery");
+        herbert.setAge(13);
+        herbert = studentRepository.save(herbert);
+
+        List<SearchHit> prefix = searchStudents("herm");
+        assertThat(prefix).isNotEmpty();
+        assertThat(prefix.get(0).getId()).isEqualTo(hermione.getId());
+        assertThat(searchStudents("ranger")).extracting(SearchHit::getId).contains(hermione.getId());
+        assertThat(searchStudents("Hermoine Grenger").get(0).getId()).isEqualTo(hermione.getId());
+        assertThat(searchStudents("her")).extracting(SearchHit::getId)
+                .contains(hermione.getId(), herbert.getId());
+
+        Student renamed = new Student();
+        renamed.setName("Luna Lovegood");
+        renamed.setAge(12);
+        testRestTemplate.put(buildUrl("/student/{id}"), renamed, hermione.getId());
+        assertThat(searchStudents("hermione")).extracting(SearchHit::getId).doesNotContain(hermione.getId());
+        assertThat(searchStudents("lovegod")).extracting(SearchHit::getId).contains(hermione.getId());
+
+        List<SearchHit> secondPage = testRestTemplate.exchange(buildUrl("/student/search?q=her&page=2&size=1"),
+                HttpMethod.GET, HttpEntity.EMPTY, new ParameterizedTypeReference<List<SearchHit>>() {
+                }).getBody();
+        assertThat(secondPage).hasSizeLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void searchFacultiesByNameOrColor() {
+        Faculty faculty = new Faculty();
+        // Faker may name a setup faculty Ravenclaw as well, so the name carries a word only this one has
+        faculty.setName("Ravenclaw Eagles");
+        faculty.setColor("Blue");
+        faculty = facultyRepository.save(faculty);
+
+        List<SearchHit> byName = testRestTemplate.exchange(buildUrl("/faculty/search?q=ravencla eagl"),
+                HttpMethod.GET, HttpEntity.EMPTY, new ParameterizedTypeReference<List<SearchHit>>() {
+                }).getBody();
+        List<SearchHit> byColor = testRestTemplate.exchange(buildUrl("/faculty/search?q=blu"),
+                HttpMethod.GET, HttpEntity.EMPTY, new ParameterizedTypeReference<List<SearchHit>>() {
+                }).getBody();
+
+        assertThat(byName.get(0).getId()).isEqualTo(faculty.getId());
+        assertThat(byColor).extracting(SearchHit::getId).contains(faculty.getId());
+    }
+
+    private List<SearchHit> searchStudents(String query) {
+        return testRestTemplate.exchange(buildUrl("/student/search?q={q}"), HttpMethod.GET, HttpEntity.EMPTY,
+                new ParameterizedTypeReference<List<SearchHit>>() {
+                }, query).getBody();
+    }
+
+    @Test
+    void removeStudentsByIdsAndByRangeAge() {
+        List<Long> ids = List.of(students.get(0).getId(), students.get(1).getId(), -1L);
+
+        ResponseEntity<Integer> removedByIds = testRestTemplate.exchange(
+                buildUrl("/student?ids={ids}"), HttpMethod.DELETE, HttpEntity.EMPTY, Integer.class,
+                ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+
+        assertThat(removedByIds.getBody()).isEqualTo(2);
+        assertThat(testRestTemplate.getForEntity(buildUrl("/student/{id}"), String.class, ids.get(0)).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+
+        ResponseEntity<Integer> removedByAge = testRestTemplate.exchange(
+                buildUrl("/student?minAge=0&maxAge=100"), HttpMethod.DELETE, HttpEntity.EMPTY, Integer.class);
+
+        assertThat(removedByAge.getBody()).isEqualTo(students.size() - 2);
+        assertThat(testRestTemplate.getForObject(buildUrl("/student/count"), Long.class)).isZero();
+    }
+
+    @Test
+    void removeFacultiesByIdsDetachesStudents() {
+        Faculty faculty = students.get(0).getFaculty();
+
+        ResponseEntity<Integer> removed = testRestTemplate.exchange(
+                buildUrl("/faculty?ids={ids}"), HttpMethod.DELETE, HttpEntity.EMPTY, Integer.class, faculty.getId());
+
+        assertThat(removed.getBody()).isEqualTo(1);
+        assertThat(facultyRepository.findById(faculty.getId())).isEmpty();
+        assertThat(testRestTemplate.getForObject(buildUrl("/student/{id}/faculty"), String.class, students.get(0).getId()))
+                .isNull();
+    }
+
+    @Test
+    void searchDropsStudentsAndFacultiesRemovedInBulk() throws InterruptedException {
+        Student student = students.get(0);
+        Faculty faculty = new Faculty();
+        faculty.setName("Durmstrang");
+        faculty.setColor("Crimson");
+        faculty = facultyRepository.save(faculty);
+        assertThat(searchStudents(student.getName())).extracting(SearchHit::getId).contains(student.getId());
+
+        testRestTemplate.exchange(buildUrl("/student?ids={ids}"), HttpMethod.DELETE, HttpEntity.EMPTY, Integer.class,
+                student.getId());
+        testRestTemplate.exchange(buildUrl("/faculty?ids={ids}"), HttpMethod.DELETE, HttpEntity.EMPTY, Integer.class,
+                faculty.getId());
+
+        List<SearchHit> found = searchStudents(student.getName());
+        for (int attempt = 0; attempt < 50 && found.stream().anyMatch(hit -> hit.getId() == student.getId()); attempt++) {
+            Thread.sleep(100);
+            found = searchStudents(student.getName());
+        }
+        assertThat(found).extracting(SearchHit::getId).doesNotContain(student.getId());
+        assertThat(testRestTemplate.exchange(buildUrl("/faculty/search?q=durmstrang"), HttpMethod.GET, HttpEntity.EMPTY,
+                new ParameterizedTypeReference<List<SearchHit>>() {
+                }).getBody()).extracting(SearchHit::getId).doesNotContain(faculty.getId());
+    }
+}
@@ -1,5 +1,6 @@
 package ru.hogwarts.school.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import net.datafaker.Faker;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,34 +10,76 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.http.MediaType;
-import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarDataRepository;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.FacultyRepository;
 import ru.hogwarts.school.repository.StudentRepository;
-import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.AvatarService;
+import ru.hogwarts.school.service.KeysetPaginator;
+import ru.hogwarts.school.service.NdjsonExporter;
+import ru.hogwarts.school.service.SearchService;
+import ru.hogwarts.school.service.StudentImportService;
 import ru.hogwarts.school.service.StudentService;
+import ru.hogwarts.school.service.StudentStatisticsService;
 
 import java.util.Arrays;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
-<<<<<< master
 @WebMvcTest(StudentController.class)
 public class StudentControllerWebMvcTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @SpyBean
     private StudentService studentService;
 
     @MockBean
     private StudentRepository studentRepository;
+
+    @MockBean
+    private FacultyRepository facultyRepository;
+
+    @MockBean
+    private AvatarRepository avatarRepository;
+
+    @MockBean
+    private AvatarDataRepository avatarDataRepository;
+
+    @MockBean
+    private StudentStatisticsService studentStatisticsService;
+
+    @SpyBean
+    private KeysetPaginator keysetPaginator;
+
+    @SpyBean
+    private HttpCachePolicy httpCachePolicy;
+
+    @MockBean
+    private NdjsonExporter ndjsonExporter;
+
+    @MockBean
+    private AvatarService avatarService;
+
+    @MockBean
+    private StudentImportService studentImportService;
+
+    @MockBean
+    private SearchService searchService;
     private final Faker faker = new Faker();
 
     @Test
@@ -49,12 +92,13 @@ public class StudentControllerWebMvcTest {
         student1.setName(faker.harryPotter().character());
 
         Student student2 = new Student();
-        student1.setId(2L);
-        student1.setAge(10);
-        student1.setName(faker.harryPotter().character());
+        student2.setId(2L);
+        student2.setAge(10);
+        student2.setName(faker.harryPotter().character());
 
-        when(studentRepository.findAllByAge(10)).thenReturn(Arrays.asList(student1, student2));
-        mockMvc.perform(get("/student/age?age=10"))
+        when(studentRepository.findAllByAgeAndIdGreaterThanOrderById(eq(10), anyLong(), any()))
+                .thenReturn(Arrays.asList(student1, student2));
+        mockMvc.perform(get("/student?age=10"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(2));
     }
@@ -68,12 +112,13 @@ public class StudentControllerWebMvcTest {
         student1.setName(faker.harryPotter().character());
 
         Student student2 = new Student();
-        student1.setId(2L);
-        student1.setAge(18);
-        student1.setName(faker.harryPotter().character());
+        student2.setId(2L);
+        student2.setAge(18);
+        student2.setName(faker.harryPotter().character());
 
-        when(studentRepository.findAllByAgeBetween(10, 20)).thenReturn(Arrays.asList(student1, student2));
-        mockMvc.perform(get("/student/minAge_maxAge?minAge=10&&maxAge=20"))
+        when(studentRepository.findAllByAgeBetweenAndIdGreaterThanOrderById(eq(10), eq(20), anyLong(), any()))
+                .thenReturn(Arrays.asList(student1, student2));
+        mockMvc.perform(get("/student?minAge=10&maxAge=20"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(2));
 
@@ -97,10 +142,12 @@ public class StudentControllerWebMvcTest {
     @DisplayName("Создать студента")
     void create() throws Exception {
         Student student1 = new Student();
+        student1.setAge(11);
+        student1.setName(faker.harryPotter().character());
         when(studentRepository.save(any())).thenReturn(student1);
         mockMvc.perform(post("/student")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(student1.toString()))
+                        .content(objectMapper.writeValueAsString(student1)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name").value(student1.getName()))
                 .andExpect(jsonPath("$.age").value(student1.getAge()));
@@ -113,12 +160,12 @@ public class StudentControllerWebMvcTest {
         student1.setId(1L);
         student1.setAge(10);
         student1.setName(faker.harryPotter().character());
-        when(studentRepository.findById(1L)).thenReturn(Optional.of(student1));
-        studentRepository.deleteById(1L);
+        when(studentRepository.readById(1L)).thenReturn(Optional.of(student1));
         mockMvc.perform(delete("/student/1")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isEmpty());
+                .andExpect(jsonPath("$.name").value(student1.getName()));
+        verify(studentRepository).delete(student1);
     }
 
     @Test
@@ -138,6 +185,7 @@ public class StudentControllerWebMvcTest {
         mockMvc.perform(get("/student/1/faculty")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.faculty").value(faculty));
+                .andExpect(jsonPath("$.name").value(faculty.getName()))
+                .andExpect(jsonPath("$.color").value(faculty.getColor()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package ru.hogwarts.school.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = database("routing-primary");
+    private final FlakyDataSource replica = new FlakyDataSource(database("routing-replica"));
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @AfterEach
+    public void afterEach() {
+        new JdbcTemplate(primary).execute("DROP TABLE node");
+        new JdbcTemplate(replica).execute("DROP TABLE node");
+    }
+
+    @Test
+    public void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        JdbcTemplate jdbcTemplate = jdbcTemplate(Duration.ZERO);
+
+        assertThat(inTransaction(jdbcTemplate, true)).isEqualTo("routing-replica");
+        assertThat(inTransaction(jdbcTemplate, false)).isEqualTo("routing-primary");
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM node", String.class)).isEqualTo("routing-primary");
+        assertThat(inTransaction(jdbcTemplate, true)).isEqualTo("routing-replica");
+    }
+
+    @Test
+    public void readOnlyTransactionsStayOnPrimaryWithinReadYourWritesWindow() {
+        JdbcTemplate jdbcTemplate = jdbcTemplate(Duration.ofMinutes(1));
+
+        assertThat(inTransaction(jdbcTemplate, true)).isEqualTo("routing-replica");
+        assertThat(inTransaction(jdbcTemplate, false)).isEqualTo("routing-primary");
+        assertThat(inTransaction(jdbcTemplate, true)).isEqualTo("routing-primary");
+    }
+
+    @Test
+    public void rolledBackWriteDoesNotPinReadsToPrimary() {
+        JdbcTemplate jdbcTemplate = jdbcTemplate(Duration.ofMinutes(1));
+        TransactionTemplate transactionTemplate =
+                new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+
+        String name = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+        });
+
+        assertThat(name).isEqualTo("routing-primary");
+        assertThat(inTransaction(jdbcTemplate, true)).isEqualTo("routing-replica");
+    }
+
+    @Test
+    public void failedReplicaFallsBackToPrimaryUntilHealthCheckPasses() {
+        JdbcTemplate jdbcTemplate = jdbcTemplate(Duration.ZERO);
+
+        replica.down = true;
+        assertThat(inTransaction(jdbcTemplate, true)).isEqualTo("routing-primary");
+        assertThat(routingDataSource.healthyReplicas()).isZero();
+        assertThat(inTransaction(jdbcTemplate, true)).isEqualTo("routing-primary");
+
+        routingDataSource.checkReplicas();
+        assertThat(routingDataSource.healthyReplicas()).isZero();
+
+        replica.down = false;
+        routingDataSource.checkReplicas();
+        assertThat(routingDataSource.healthyReplicas()).isEqualTo(1);
+        assertThat(inTransaction(jdbcTemplate, true)).isEqualTo("routing-replica");
+    }
+
+    private JdbcTemplate jdbcTemplate(Duration readYourWritesWindow) {
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica), readYourWritesWindow);
+        return new JdbcTemplate(new LazyConnectionDataSourceProxy(routingDataSource));
+    }
+
+    private String inTransaction(JdbcTemplate jdbcTemplate, boolean readOnly) {
+        TransactionTemplate transactionTemplate =
+                new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "test", "test");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static class FlakyDataSource extends DelegatingDataSource {
+        private volatile boolean down;
+
+        private FlakyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Replica is down");
+            }
+            return super.getConnection();
+        }
+    }
+}
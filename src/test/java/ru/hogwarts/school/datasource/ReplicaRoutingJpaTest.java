@@ -0,0 +1,88 @@
+package ru.hogwarts.school.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.StudentService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-jpa-primary;DB_CLOSE_DELAY=-1",
+        "applications.datasource.routing.enabled=true",
+        "applications.datasource.replica-urls=" + ReplicaRoutingJpaTest.REPLICA_URL,
+        "applications.datasource.read-your-writes-window=PT0S"
+})
+@Import(ReplicaRoutingJpaTest.ReadThenWriteController.class)
+@DirtiesContext
+class ReplicaRoutingJpaTest {
+    static final String REPLICA_URL =
+            "jdbc:h2:mem:routing-jpa-replica;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:replica-schema.sql'";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "test", "test"));
+
+    @BeforeEach
+    public void beforeEach() {
+        // Only the replica knows this student, so reading it proves the read went to the replica
+        replica.update("INSERT INTO student (id, name, age) VALUES (1, 'Luna Lovegood', 14)");
+    }
+
+    @AfterEach
+    public void afterEach() {
+        replica.update("DELETE FROM student");
+        new JdbcTemplate(primaryDataSource).update("DELETE FROM student");
+    }
+
+    @Test
+    public void writeAfterReplicaReadInSameRequestGoesToPrimary() {
+        ResponseEntity<Student> responseEntity = testRestTemplate.postForEntity(
+                "http://localhost:%d/routing-test/student/{id}/copy".formatted(port), null, Student.class, 1);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(new JdbcTemplate(primaryDataSource).queryForObject(
+                "SELECT COUNT(*) FROM student WHERE name = 'Luna Lovegood'", Long.class)).isEqualTo(1);
+        assertThat(replica.queryForObject("SELECT COUNT(*) FROM student", Long.class)).isEqualTo(1);
+    }
+
+    @RestController
+    static class ReadThenWriteController {
+        private final StudentService studentService;
+
+        ReadThenWriteController(StudentService studentService) {
+            this.studentService = studentService;
+        }
+
+        @PostMapping("/routing-test/student/{id}/copy")
+        public Student copy(@PathVariable long id) {
+            Student source = studentService.get(id);
+            Student copy = new Student();
+            copy.setName(source.getName());
+            copy.setAge(source.getAge());
+            return studentService.create(copy);
+        }
+    }
+}
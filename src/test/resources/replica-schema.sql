@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS faculties (
+    id      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name    VARCHAR(255),
+    color   VARCHAR(255),
+    version BIGINT NOT NULL DEFAULT 0
+);
+CREATE TABLE IF NOT EXISTS student (
+    id         BIGINT PRIMARY KEY,
+    name       VARCHAR(255),
+    age        INTEGER NOT NULL,
+    faculty_id BIGINT REFERENCES faculties (id),
+    version    BIGINT NOT NULL DEFAULT 0
+);